@@ -0,0 +1,19 @@
+package com.example.poverty.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Spring Boot registers every {@link Module} bean on the shared ObjectMapper. Blackbird replaces
+     * reflective accessor calls with generated lambdas, which speeds up serialising the response records.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.poverty.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Measures replication lag with a heartbeat row: each tick writes the current time to
+ * {@code replication_heartbeat} on the primary and reads it back from the replica. While the replica
+ * is unreachable or further behind than {@code maxLagMs}, reads fall back to the primary.
+ * A non-positive {@code maxLagMs} only checks that the replica answers (e.g. two local H2 files that do
+ * not replicate).
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+
+    private volatile boolean replicaUsable;
+    private volatile long lastLagMs = -1;
+
+    public ReplicaLagMonitor(DataSource primaryDataSource, DataSource replicaDataSource, long maxLagMs) {
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.maxLagMs = maxLagMs;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long lastLagMs() {
+        return lastLagMs;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.replica.heartbeat-ms:2000}")
+    public void check() {
+        boolean usable;
+        try {
+            if (maxLagMs > 0) {
+                long now = System.currentTimeMillis();
+                primary.update("update replication_heartbeat set beat_millis = ? where id = 1", now);
+                Long beat = replica.queryForObject("select beat_millis from replication_heartbeat where id = 1", Long.class);
+                // 从库上的心跳时间越旧，延迟越大
+                lastLagMs = beat != null ? Math.max(0, now - beat) : Long.MAX_VALUE;
+                usable = lastLagMs <= maxLagMs;
+            } else {
+                replica.queryForObject("select 1", Integer.class);
+                lastLagMs = 0;
+                usable = true;
+            }
+        } catch (RuntimeException ex) {
+            log.debug("Replica check failed: {}", ex.getMessage());
+            usable = false;
+        }
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Replica usable again (lag {} ms), routing read-only transactions to it", lastLagMs);
+            } else {
+                log.warn("Replica unavailable or lagging (lag {} ms), routing all reads to the primary", lastLagMs);
+            }
+        }
+        replicaUsable = usable;
+    }
+}
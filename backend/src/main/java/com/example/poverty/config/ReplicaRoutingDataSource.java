@@ -0,0 +1,90 @@
+package com.example.poverty.config;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Sends connections of read-only transactions to the replica while {@link ReplicaLagMonitor} reports it
+ * usable; everything else, and any code run inside {@link #primaryOnly}, uses the primary. Wrapped in a
+ * {@code LazyConnectionDataSourceProxy} so the target is picked at the first statement, after the
+ * transaction's read-only flag is known.
+ * <p>
+ * A session that reads from the replica only reads the second-level cache and does not fill it: a
+ * lagging replica would otherwise put entities that were just evicted after a primary commit back into
+ * the cache in their old state.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+    }
+
+    /**
+     * Runs {@code action} with all reads on the primary, for callers that must see their own writes
+     * (e.g. reloading the column store right after an import).
+     */
+    public static <T> T primaryOnly(Supplier<T> action) {
+        Boolean previous = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_ONLY.remove();
+            } else {
+                PRIMARY_ONLY.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (PRIMARY_ONLY.get() == null
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && lagMonitor.isReplicaUsable()) {
+            keepOutOfSecondLevelCache();
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+
+    // 连接在第一条语句时才选定，此时把当前事务的 Session 切换为只读缓存，事务结束后恢复
+    private static void keepOutOfSecondLevelCache() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (!(resource instanceof EntityManagerHolder holder)) {
+                continue;
+            }
+            Session session = holder.getEntityManager().unwrap(Session.class);
+            CacheMode previous = session.getCacheMode();
+            if (previous == CacheMode.GET) {
+                continue;
+            }
+            session.setCacheMode(CacheMode.GET);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (session.isOpen()) {
+                        session.setCacheMode(previous);
+                    }
+                }
+            });
+        }
+    }
+}
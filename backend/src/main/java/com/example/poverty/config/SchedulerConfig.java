@@ -12,8 +12,16 @@ public class SchedulerConfig {
 
     public SchedulerConfig(AlertScannerService scannerService) { this.scannerService = scannerService; }
 
-    @Scheduled(cron = "0 0 2 * * ?")
+    // 只评估上次扫描后指标或规则有变更的组合；无变更时仅一次计数查询
+    @Scheduled(initialDelayString = "${app.alerts.incremental-scan-ms:5000}",
+            fixedDelayString = "${app.alerts.incremental-scan-ms:5000}")
+    public void incrementalScan() {
+        scannerService.scanChanges();
+    }
+
+    // 每晚全量扫描兜底，覆盖未记入变更日志的数据变化（如直接改库）
+    @Scheduled(cron = "${app.alerts.full-scan-cron:0 0 2 * * ?}")
     public void dailyScan() {
         scannerService.scanAllRules();
     }
-}
\ No newline at end of file
+}
@@ -4,12 +4,16 @@ import com.example.poverty.model.CountyProject;
 import com.example.poverty.model.EconomicIndicator;
 import com.example.poverty.model.PovertyCounty;
 import com.example.poverty.model.Province;
+import com.example.poverty.repository.AlertEventRepository;
 import com.example.poverty.repository.CountyProjectRepository;
+import com.example.poverty.repository.CountyProjectRollupRepository;
 import com.example.poverty.repository.EconomicIndicatorRepository;
 import com.example.poverty.repository.PovertyCountyRepository;
 import com.example.poverty.repository.ProvinceRepository;
+import com.example.poverty.service.BulkImportService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -67,15 +71,27 @@ public class SyntheticDataSeeder implements CommandLineRunner {
     private final PovertyCountyRepository countyRepository;
     private final EconomicIndicatorRepository indicatorRepository;
     private final CountyProjectRepository projectRepository;
+    private final CountyProjectRollupRepository rollupRepository;
+    private final AlertEventRepository alertEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final BulkImportService bulkImportService;
 
     public SyntheticDataSeeder(ProvinceRepository provinceRepository,
                                PovertyCountyRepository countyRepository,
                                EconomicIndicatorRepository indicatorRepository,
-                               CountyProjectRepository projectRepository) {
+                               CountyProjectRepository projectRepository,
+                               CountyProjectRollupRepository rollupRepository,
+                               AlertEventRepository alertEventRepository,
+                               JdbcTemplate jdbcTemplate,
+                               BulkImportService bulkImportService) {
         this.provinceRepository = provinceRepository;
         this.countyRepository = countyRepository;
         this.indicatorRepository = indicatorRepository;
         this.projectRepository = projectRepository;
+        this.rollupRepository = rollupRepository;
+        this.alertEventRepository = alertEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bulkImportService = bulkImportService;
     }
 
     @Override
@@ -84,6 +100,10 @@ public class SyntheticDataSeeder implements CommandLineRunner {
             return;
         }
 
+        // 汇总、告警事件和变更日志都按县记录，随县一起清掉，由下面的导入重新生成
+        jdbcTemplate.update("delete from alert_change_log");
+        alertEventRepository.deleteAllInBatch();
+        rollupRepository.deleteAllInBatch();
         indicatorRepository.deleteAllInBatch();
         projectRepository.deleteAllInBatch();
         countyRepository.deleteAllInBatch();
@@ -125,7 +145,8 @@ public class SyntheticDataSeeder implements CommandLineRunner {
                         .filter(Objects::nonNull)
                         .mapToDouble(Double::doubleValue)
                         .sum();
-                county.setTotalInvestment(round1(totalProjectInvestment > 0 ? totalProjectInvestment : randomBetween(random, 10, 55)));
+                // 有项目的县由项目写入时累加总投资
+                county.setTotalInvestment(totalProjectInvestment > 0 ? 0.0 : round1(randomBetween(random, 10, 55)));
                 countyRepository.save(county);
                 projectsToSave.addAll(countyProjects);
 
@@ -176,8 +197,35 @@ public class SyntheticDataSeeder implements CommandLineRunner {
             }
         });
 
-        indicatorRepository.saveAll(indicatorsToSave);
-        projectRepository.saveAll(projectsToSave);
+        // 指标与项目走 JDBC 批量写入，避免 IDENTITY 主键下逐行 INSERT
+        bulkImportService.upsertIndicators(indicatorsToSave.stream()
+                .map(indicator -> new BulkImportService.IndicatorRow(
+                        indicator.getCounty().getCountyId(),
+                        indicator.getYear(),
+                        indicator.getGdp(),
+                        indicator.getGdpYoy(),
+                        indicator.getGdpPerCapita(),
+                        indicator.getRuralDisposableIncome(),
+                        indicator.getRuralIncomeYoy(),
+                        indicator.getFiscalRevenue(),
+                        indicator.getFiscalRevenueYoy(),
+                        indicator.getPovertyRate()))
+                .toList());
+        bulkImportService.insertProjects(projectsToSave.stream()
+                .map(project -> new BulkImportService.ProjectRow(
+                        project.getCounty().getCountyId(),
+                        project.getProjectName(),
+                        project.getCategory(),
+                        project.getInvestment(),
+                        project.getBeneficiaries(),
+                        project.getStatus(),
+                        project.getProgress(),
+                        project.getStartYear(),
+                        project.getEndYear(),
+                        project.getLeadUnit(),
+                        project.getDescription(),
+                        project.getImpactScore()))
+                .toList());
     }
 
     private static Integer randomDelistingYear(Random random) {
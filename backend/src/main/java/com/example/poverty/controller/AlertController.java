@@ -8,11 +8,13 @@ import com.example.poverty.model.SysUser;
 import com.example.poverty.repository.AlertEventRepository;
 import com.example.poverty.repository.AlertRuleRepository;
 import com.example.poverty.repository.SysUserRepository;
+import com.example.poverty.service.AlertChangeTracker;
 import com.example.poverty.service.AlertScanMonitor;
 import com.example.poverty.service.AlertScannerService;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -27,17 +29,20 @@ public class AlertController {
     private final AlertScannerService scannerService;
     private final SysUserRepository userRepository;
     private final AlertScanMonitor scanMonitor;
+    private final AlertChangeTracker changeTracker;
 
     public AlertController(AlertRuleRepository ruleRepo,
                            AlertEventRepository eventRepo,
                            AlertScannerService scannerService,
                            SysUserRepository userRepository,
-                           AlertScanMonitor scanMonitor) {
+                           AlertScanMonitor scanMonitor,
+                           AlertChangeTracker changeTracker) {
         this.ruleRepo = ruleRepo;
         this.eventRepo = eventRepo;
         this.scannerService = scannerService;
         this.userRepository = userRepository;
         this.scanMonitor = scanMonitor;
+        this.changeTracker = changeTracker;
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','ANALYST')")
@@ -48,13 +53,17 @@ public class AlertController {
 
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/rules")
+    @Transactional
     public AlertRule createRule(@RequestBody AlertRule r) {
         if (r.getEnabled() == null) r.setEnabled(true);
-        return ruleRepo.save(r);
+        AlertRule saved = ruleRepo.save(r);
+        changeTracker.ruleChanged(saved.getRuleId());
+        return saved;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/rules/{ruleId}")
+    @Transactional
     public AlertRule updateRule(@PathVariable Long ruleId, @RequestBody AlertRule payload) {
         AlertRule existing = ruleRepo.findById(ruleId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "警告规则不存在"));
@@ -64,7 +73,9 @@ public class AlertController {
         if (payload.getThreshold() != null) existing.setThreshold(payload.getThreshold());
         if (payload.getDurationYears() != null) existing.setDurationYears(payload.getDurationYears());
         if (payload.getEnabled() != null) existing.setEnabled(payload.getEnabled());
-        return ruleRepo.save(existing);
+        AlertRule saved = ruleRepo.save(existing);
+        changeTracker.ruleChanged(ruleId);
+        return saved;
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -78,16 +89,27 @@ public class AlertController {
 
     @PreAuthorize("hasAnyRole('ADMIN','ANALYST')")
     @GetMapping
+    @Transactional(readOnly = true)
     public List<AlertEventResponse> listEvents() {
         return eventRepo.findAll().stream()
                 .map(AlertEventResponse::fromEntity)
                 .toList();
     }
 
+    /**
+     * {@code mode=incremental} (default) re-evaluates only what changed since the last scan;
+     * {@code mode=full} re-evaluates every rule against every county.
+     */
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/scan")
-    public String scanNow() {
-        scannerService.scanAllRulesAsync();
+    public String scanNow(@RequestParam(defaultValue = "incremental") String mode) {
+        if ("full".equalsIgnoreCase(mode)) {
+            scannerService.scanAllRulesAsync();
+        } else if ("incremental".equalsIgnoreCase(mode)) {
+            scannerService.scanChangesAsync();
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "不支持的扫描模式: " + mode);
+        }
         return "scan-started";
     }
 
@@ -0,0 +1,107 @@
+package com.example.poverty.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Hit ratios of the Hibernate second-level and query caches, per region. The counters come from the
+ * JCache statistics Ehcache keeps for every cache ({@code enable-statistics} in ehcache.xml), so they do
+ * not depend on Hibernate statistics, which are off outside the dev profile.
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private static final Set<String> QUERY_REGIONS = Set.of("reference.queries", "default-query-results-region");
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CacheController(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/stats")
+    public CacheStats getCacheStats() {
+        List<RegionStats> regions = regionStats();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return new CacheStats(
+                statistics.isStatisticsEnabled(),
+                ratio(regions, region -> !QUERY_REGIONS.contains(region) && !TIMESTAMPS_REGION.equals(region)),
+                ratio(regions, QUERY_REGIONS::contains),
+                // 只有开启 Hibernate 统计时才有查询计数
+                statistics.isStatisticsEnabled() ? statistics.getQueryExecutionCount() : null,
+                regions);
+    }
+
+    private List<RegionStats> regionStats() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            return server.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null).stream()
+                    .map(name -> regionStats(server, name))
+                    .sorted(Comparator.comparing(RegionStats::region))
+                    .toList();
+        } catch (JMException ex) {
+            throw new IllegalStateException("读取缓存统计失败", ex);
+        }
+    }
+
+    private RegionStats regionStats(MBeanServer server, ObjectName name) {
+        try {
+            long hits = (Long) server.getAttribute(name, "CacheHits");
+            long misses = (Long) server.getAttribute(name, "CacheMisses");
+            return new RegionStats(name.getKeyProperty("Cache"), hits, misses,
+                    (Long) server.getAttribute(name, "CachePuts"), ratio(hits, misses),
+                    (Long) server.getAttribute(name, "CacheEvictions"));
+        } catch (JMException ex) {
+            throw new IllegalStateException("读取缓存统计失败: " + name, ex);
+        }
+    }
+
+    private double ratio(List<RegionStats> regions, Predicate<String> included) {
+        List<RegionStats> selected = regions.stream().filter(region -> included.test(region.region())).toList();
+        return ratio(selected.stream().mapToLong(RegionStats::hits).sum(),
+                selected.stream().mapToLong(RegionStats::misses).sum());
+    }
+
+    private double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : Math.round(hits * 1000.0 / total) / 1000.0;
+    }
+
+    /**
+     * @param statisticsEnabled whether Hibernate statistics are on; {@code databaseQueries} is {@code null}
+     *                          otherwise
+     */
+    public record CacheStats(
+            boolean statisticsEnabled,
+            double entityHitRatio,
+            double queryHitRatio,
+            Long databaseQueries,
+            List<RegionStats> regions
+    ) {}
+
+    public record RegionStats(
+            String region,
+            long hits,
+            long misses,
+            long puts,
+            double hitRatio,
+            long evictions
+    ) {}
+}
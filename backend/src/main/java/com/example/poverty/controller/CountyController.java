@@ -1,5 +1,6 @@
 package com.example.poverty.controller;
 
+import com.example.poverty.config.ReplicaRoutingDataSource;
 import com.example.poverty.model.CountyProject;
 import com.example.poverty.model.EconomicIndicator;
 import com.example.poverty.model.PovertyCounty;
@@ -7,19 +8,32 @@ import com.example.poverty.model.Province;
 import com.example.poverty.repository.CountyProjectRepository;
 import com.example.poverty.repository.EconomicIndicatorRepository;
 import com.example.poverty.repository.PovertyCountyRepository;
+import com.example.poverty.repository.PovertyCountyRepository.CountyListItem;
 import com.example.poverty.repository.ProvinceRepository;
+import com.example.poverty.service.CountySearchService;
+import com.example.poverty.service.DataVersion;
+import com.example.poverty.service.IndicatorColumnStore;
+import com.example.poverty.service.ProjectRollupService;
+import com.example.poverty.service.ProjectService;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -29,24 +43,101 @@ public class CountyController {
     private final EconomicIndicatorRepository indicatorRepo;
     private final ProvinceRepository provinceRepo;
     private final CountyProjectRepository projectRepo;
+    private final IndicatorColumnStore indicatorStore;
+    private final CountySearchService countySearch;
+    private final DataVersion dataVersion;
+    private final ProjectService projectService;
+    private final ProjectRollupService rollupService;
+    private final long replicaCatchUpMs;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_DETAIL_BATCH = 50;
 
     public CountyController(PovertyCountyRepository countyRepo,
                             EconomicIndicatorRepository indicatorRepo,
                             ProvinceRepository provinceRepo,
-                            CountyProjectRepository projectRepo) {
+                            CountyProjectRepository projectRepo,
+                            IndicatorColumnStore indicatorStore,
+                            CountySearchService countySearch,
+                            DataVersion dataVersion,
+                            ProjectService projectService,
+                            ProjectRollupService rollupService,
+                            @Value("${app.datasource.replica.max-lag-ms:5000}") long replicaMaxLagMs,
+                            @Value("${app.datasource.replica.heartbeat-ms:2000}") long replicaHeartbeatMs) {
         this.countyRepo = countyRepo;
         this.indicatorRepo = indicatorRepo;
         this.provinceRepo = provinceRepo;
         this.projectRepo = projectRepo;
+        this.indicatorStore = indicatorStore;
+        this.countySearch = countySearch;
+        this.dataVersion = dataVersion;
+        this.projectService = projectService;
+        this.rollupService = rollupService;
+        // 延迟检查按心跳周期进行，从库最多可能落后 最大延迟 + 一个心跳周期
+        this.replicaCatchUpMs = Math.max(replicaMaxLagMs, 0) + Math.max(replicaHeartbeatMs, 0);
     }
 
+    /**
+     * Without paging parameters this returns the full list as before. With {@code page}, {@code size},
+     * {@code cursor} or {@code sort} it returns one {@link CountyPage}: {@code sort} is countyId (default,
+     * keyset via {@code cursor}), countyName or an indicator key such as gdp / povertyRate for {@code year}.
+     * {@code view=slim} returns {@link CountyListItem} rows (id, name, province, level) instead of entities.
+     */
     @GetMapping
-    public List<PovertyCounty> list(@RequestParam(required = false) Long provinceId,
-                                    @RequestParam(required = false) String keyword) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> list(@RequestParam(required = false) Long provinceId,
+                                  @RequestParam(required = false) String keyword,
+                                  @RequestParam(required = false) String view,
+                                  @RequestParam(required = false) Integer page,
+                                  @RequestParam(required = false) Integer size,
+                                  @RequestParam(required = false) Long cursor,
+                                  @RequestParam(required = false) String sort,
+                                  @RequestParam(required = false) String order,
+                                  @RequestParam(required = false) Integer year) {
+        boolean slim = "slim".equalsIgnoreCase(view);
+        if (page == null && size == null && cursor == null && !StringUtils.hasText(sort)) {
+            return ResponseEntity.ok(slim ? listAllSlim(provinceId, keyword) : listAll(provinceId, keyword));
+        }
+        return ResponseEntity.ok(listPage(provinceId, keyword, slim, page, size, cursor, sort, order, year));
+    }
+
+    private CountyPage<?> listPage(Long provinceId, String keyword, boolean slim, Integer page, Integer size,
+                                   Long cursor, String sort, String order, Integer year) {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size需在1-" + MAX_PAGE_SIZE + "之间");
+        }
+        if (page != null && page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page不能为负数");
+        }
+        String sortKey = StringUtils.hasText(sort) ? sort.trim() : "countyId";
+        IndicatorColumnStore.Metric metric = null;
+        boolean byName = false;
+        if ("countyName".equalsIgnoreCase(sortKey)) {
+            byName = true;
+        } else if (!"countyId".equalsIgnoreCase(sortKey)) {
+            metric = IndicatorColumnStore.Metric.fromKey(sortKey)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "不支持的排序字段: " + sortKey));
+        }
+        if (cursor != null && (metric != null || byName)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "游标分页仅支持按countyId排序");
+        }
+        boolean descending = "desc".equalsIgnoreCase(order);
+
+        CountySearchService.Result result = countySearch.search(new CountySearchService.Criteria(
+                provinceId, keyword, metric, byName, descending, year != null ? year : 2022,
+                cursor, page != null ? page : 0, pageSize));
+
+        List<?> items = slim ? loadSlimInOrder(result.countyIds()) : loadInOrder(result.countyIds());
+        return new CountyPage<>(items, result.total(), cursor == null ? (page != null ? page : 0) : null,
+                pageSize, result.nextCursor());
+    }
+
+    private List<PovertyCounty> listAll(Long provinceId, String keyword) {
         if (StringUtils.hasText(keyword)) {
-            return provinceId == null
-                    ? countyRepo.findByCountyNameContainingIgnoreCase(keyword.trim())
-                    : countyRepo.findByCountyNameContainingIgnoreCaseAndProvince_ProvinceId(keyword.trim(), provinceId);
+            // 名称检索走内存 n-gram 索引，按相关度排序后只加载命中的县
+            return loadInOrder(countySearch.searchByName(keyword, provinceId, Integer.MAX_VALUE));
         }
         if (provinceId == null) {
             return countyRepo.findAll();
@@ -54,7 +145,40 @@ public class CountyController {
         return countyRepo.findByProvince_ProvinceId(provinceId);
     }
 
+    private List<CountyListItem> listAllSlim(Long provinceId, String keyword) {
+        if (StringUtils.hasText(keyword)) {
+            return loadSlimInOrder(countySearch.searchByName(keyword, provinceId, Integer.MAX_VALUE));
+        }
+        return provinceId == null ? countyRepo.findListItems() : countyRepo.findListItemsByProvinceId(provinceId);
+    }
+
+    private List<CountyListItem> loadSlimInOrder(List<Long> countyIds) {
+        if (countyIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, CountyListItem> loaded = countyRepo.findListItemsByCountyIdIn(countyIds).stream()
+                .collect(Collectors.toMap(CountyListItem::getCountyId, Function.identity()));
+        return countyIds.stream()
+                .map(loaded::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // 只加载给定 id 的实体，并保持 id 列表的顺序
+    private List<PovertyCounty> loadInOrder(List<Long> countyIds) {
+        if (countyIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, PovertyCounty> loaded = countyRepo.findByCountyIdIn(countyIds).stream()
+                .collect(Collectors.toMap(PovertyCounty::getCountyId, Function.identity()));
+        return countyIds.stream()
+                .map(loaded::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @GetMapping("/{id}/indicators")
+    @Transactional(readOnly = true)
     public List<EconomicIndicator> getIndicators(@PathVariable Long id,
                                                  @RequestParam(required = false) Integer from,
                                                  @RequestParam(required = false) Integer to) {
@@ -68,32 +192,103 @@ public class CountyController {
     }
 
     @GetMapping("/provinces")
+    @Transactional(readOnly = true)
     public List<Province> getProvinces() {
         return provinceRepo.findAll();
     }
 
     @GetMapping("/search")
-    public List<PovertyCounty> searchCounties(@RequestParam(required = false) String keyword,
-                                            @RequestParam(required = false) Long provinceId) {
-        return list(provinceId, keyword);
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> searchCounties(@RequestParam(required = false) String keyword,
+                                            @RequestParam(required = false) Long provinceId,
+                                            @RequestParam(required = false) String view,
+                                            @RequestParam(required = false) Integer page,
+                                            @RequestParam(required = false) Integer size,
+                                            @RequestParam(required = false) Long cursor,
+                                            @RequestParam(required = false) String sort,
+                                            @RequestParam(required = false) String order,
+                                            @RequestParam(required = false) Integer year) {
+        return list(provinceId, keyword, view, page, size, cursor, sort, order, year);
     }
 
     @GetMapping("/{id}/detail")
-    public ResponseEntity<?> getCountyDetail(@PathVariable Long id) {
-        PovertyCounty county = countyRepo.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "县不存在"));
-        List<EconomicIndicator> indicators = indicatorRepo.findByCounty_OrderByYearAsc(county);
-        EconomicIndicator latest = indicators.isEmpty() ? null : indicators.get(indicators.size() - 1);
-        List<CountyProject> projects = projectRepo.findByCounty_CountyId(id);
+    @Transactional(readOnly = true)
+    public ResponseEntity<CountyDetail> getCountyDetail(@PathVariable Long id, WebRequest request) {
+        // 按县版本号生成 ETag，未变化时直接返回 304，不再查询数据库
+        String etag = dataVersion.countyEtag(id);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        CountyDetail detail = readAfterWrites(List.of(id), () -> {
+            PovertyCounty county = countyRepo.findById(id)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "县不存在"));
+            List<EconomicIndicator> indicators = indicatorRepo.findByCounty_OrderByYearAsc(county);
+            List<CountyProject> projects = projectRepo.findByCounty_CountyId(id);
+            return buildDetail(county, indicators, projects, rollupService.totals(id));
+        });
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(detail);
+    }
+
+    /**
+     * Detail views for several counties (e.g. the comparison page) from three set-based queries:
+     * counties, their indicators and their projects. Unknown ids are skipped; order follows {@code ids}.
+     */
+    @GetMapping("/details")
+    @Transactional(readOnly = true)
+    public List<CountyDetail> getCountyDetails(@RequestParam List<Long> ids) {
+        List<Long> countyIds = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (countyIds.size() > MAX_DETAIL_BATCH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "一次最多查询" + MAX_DETAIL_BATCH + "个县");
+        }
+        return readAfterWrites(countyIds, () -> {
+            List<PovertyCounty> counties = loadInOrder(countyIds);
+            if (counties.isEmpty()) {
+                return List.<CountyDetail>of();
+            }
+            Map<Long, List<EconomicIndicator>> indicatorsByCounty = indicatorRepo
+                    .findByCounty_CountyIdInOrderByYearAsc(countyIds).stream()
+                    .collect(Collectors.groupingBy(indicator -> indicator.getCounty().getCountyId()));
+            Map<Long, List<CountyProject>> projectsByCounty = projectRepo.findByCounty_CountyIdIn(countyIds).stream()
+                    .collect(Collectors.groupingBy(project -> project.getCounty().getCountyId()));
+            Map<Long, ProjectRollupService.Totals> totalsByCounty = rollupService.totals(countyIds);
+
+            return counties.stream()
+                    .map(county -> buildDetail(county,
+                            indicatorsByCounty.getOrDefault(county.getCountyId(), List.of()),
+                            projectsByCounty.getOrDefault(county.getCountyId(), List.of()),
+                            totalsByCounty.getOrDefault(county.getCountyId(), ProjectRollupService.Totals.EMPTY)))
+                    .collect(Collectors.toList());
+        });
+    }
 
-        Map<String, Object> detail = new HashMap<>();
-        detail.put("county", buildCountySummary(county, latest, projects));
-        detail.put("kpis", buildKpi(latest, county));
-        detail.put("projectOverview", buildProjectOverview(projects, county));
-        detail.put("projects", projects);
-        detail.put("indicators", indicators);
-        detail.put("indicatorTrend", indicators.stream().map(this::mapIndicator).collect(Collectors.toList()));
-        return ResponseEntity.ok(detail);
+    /**
+     * Runs a detail read on the primary while one of {@code countyIds} was written recently enough that
+     * the replica may not have it yet. The ETag is taken from the version bumped at commit, so a lagging
+     * replica would otherwise pair the new ETag with the old body and clients would keep it through 304s.
+     */
+    private <T> T readAfterWrites(List<Long> countyIds, Supplier<T> read) {
+        if (dataVersion.writtenWithin(countyIds, replicaCatchUpMs)) {
+            return ReplicaRoutingDataSource.primaryOnly(read);
+        }
+        return read.get();
+    }
+
+    private CountyDetail buildDetail(PovertyCounty county,
+                                     List<EconomicIndicator> indicators,
+                                     List<CountyProject> projects,
+                                     ProjectRollupService.Totals projectTotals) {
+        EconomicIndicator latest = indicators.isEmpty() ? null : indicators.get(indicators.size() - 1);
+        return new CountyDetail(
+                buildCountySummary(county, latest, projectTotals),
+                buildKpi(latest, county),
+                buildProjectOverview(projectTotals, county),
+                projects,
+                indicators,
+                indicators.stream().map(IndicatorPoint::from).collect(Collectors.toList()));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -131,9 +326,6 @@ public class CountyController {
         if (request.getCoveragePopulation() != null) {
             county.setCoveragePopulation(request.getCoveragePopulation());
         }
-        if (request.getTotalInvestment() != null) {
-            county.setTotalInvestment(request.getTotalInvestment());
-        }
         if (StringUtils.hasText(request.getMainIndustries())) {
             county.setMainIndustries(request.getMainIndustries().trim());
         }
@@ -141,10 +333,13 @@ public class CountyController {
             county.setEducationSupport(request.getEducationSupport().trim());
         }
         countyRepo.save(county);
+        // 刷新列存储的同时会推进数据版本
+        indicatorStore.refreshCounty(county);
         return ResponseEntity.ok(county);
     }
 
     @GetMapping("/{id}/projects")
+    @Transactional(readOnly = true)
     public List<CountyProject> listProjects(@PathVariable Long id) {
         assertCountyExists(id);
         return projectRepo.findByCounty_CountyId(id);
@@ -159,9 +354,7 @@ public class CountyController {
         validateProjectRequest(request);
         CountyProject project = new CountyProject();
         applyProjectRequest(project, request);
-        project.setCounty(county);
-        projectRepo.save(project);
-        return ResponseEntity.status(HttpStatus.CREATED).body(project);
+        return ResponseEntity.status(HttpStatus.CREATED).body(projectService.create(county, project));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -169,26 +362,14 @@ public class CountyController {
     public ResponseEntity<CountyProject> updateProject(@PathVariable Long id,
                                                        @PathVariable Long projectId,
                                                        @RequestBody ProjectRequest request) {
-        CountyProject project = projectRepo.findById(projectId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "项目不存在"));
-        if (!Objects.equals(project.getCounty().getCountyId(), id)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "项目不属于当前县");
-        }
         validateProjectRequest(request);
-        applyProjectRequest(project, request);
-        projectRepo.save(project);
-        return ResponseEntity.ok(project);
+        return ResponseEntity.ok(projectService.update(id, projectId, project -> applyProjectRequest(project, request)));
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}/projects/{projectId}")
     public ResponseEntity<Void> deleteProject(@PathVariable Long id, @PathVariable Long projectId) {
-        CountyProject project = projectRepo.findById(projectId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "项目不存在"));
-        if (!Objects.equals(project.getCounty().getCountyId(), id)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "项目不属于当前县");
-        }
-        projectRepo.delete(project);
+        projectService.delete(id, projectId);
         return ResponseEntity.noContent().build();
     }
 
@@ -215,105 +396,64 @@ public class CountyController {
         project.setImpactScore(request.getImpactScore());
     }
 
-    private Map<String, Object> buildCountySummary(PovertyCounty county,
-                                                   EconomicIndicator latest,
-                                                   List<CountyProject> projects) {
-        Map<String, Object> summary = new HashMap<>();
+    private CountySummary buildCountySummary(PovertyCounty county,
+                                             EconomicIndicator latest,
+                                             ProjectRollupService.Totals projectTotals) {
         Province province = county.getProvince();
-        summary.put("countyId", county.getCountyId());
-        summary.put("countyName", county.getCountyName());
-        summary.put("province", province != null ? province.getProvinceName() : null);
-        summary.put("provinceId", province != null ? province.getProvinceId() : null);
-        summary.put("povertyLevel", StringUtils.hasText(county.getPovertyLevel())
-                ? county.getPovertyLevel()
-                : deriveLevel(county));
-        summary.put("population", derivePopulation(county));
-        summary.put("area", deriveArea(county));
-        summary.put("delistingYear", county.getDelistingYear());
-        summary.put("delistingDate", county.getDelistingYear() != null ? county.getDelistingYear() + "-12-31" : "持续推进中");
-        summary.put("delistedHouseholds", deriveDelistedHouseholds(county));
-        summary.put("delistedPopulation", deriveDelistedPopulation(county));
-        summary.put("mainIndustries", StringUtils.hasText(county.getMainIndustries())
-                ? county.getMainIndustries()
-                : pickIndustryFallback(county));
-        summary.put("educationSupport", StringUtils.hasText(county.getEducationSupport())
-                ? county.getEducationSupport()
-                : defaultEducationSupport(county));
-        summary.put("supportProjects", projects.size());
-        summary.put("industrialProjects",
-                projects.stream()
-                        .filter(p -> p.getCategory() != null && p.getCategory().contains("产业"))
-                        .count());
-        summary.put("coveragePopulation", county.getCoveragePopulation() != null
-                ? county.getCoveragePopulation()
-                : deriveCoveragePopulation(county));
-        summary.put("totalInvestment", county.getTotalInvestment() != null
-                ? county.getTotalInvestment()
-                : round1(projects.stream()
-                        .map(CountyProject::getInvestment)
-                        .filter(Objects::nonNull)
-                        .mapToDouble(Double::doubleValue)
-                        .sum()));
-
-        if (latest != null) {
-            summary.put("gdp", latest.getGdp());
-            summary.put("incomePerCapita", latest.getRuralDisposableIncome());
-            summary.put("gdpPerCapita", latest.getGdpPerCapita());
-            summary.put("povertyRate", latest.getPovertyRate());
-            summary.put("fiscalRevenue", latest.getFiscalRevenue());
-            summary.put("gdpYoy", latest.getGdpYoy());
-        }
-        return summary;
-    }
-
-    private Map<String, Object> buildKpi(EconomicIndicator latest, PovertyCounty county) {
-        Map<String, Object> card = new HashMap<>();
-        card.put("povertyAlleviationRate", county.getPovertyAlleviationRate() != null
-                ? county.getPovertyAlleviationRate()
-                : deriveDefaultKpi(county, 88, 98));
-        card.put("economicGrowthRate", county.getEconomicGrowthRate() != null
-                ? county.getEconomicGrowthRate()
-                : deriveDefaultKpi(county, 4.5, 9.5));
-        card.put("employmentRate", county.getEmploymentRate() != null
-                ? county.getEmploymentRate()
-                : deriveDefaultKpi(county, 82, 95));
-        if (latest != null) {
-            card.put("povertyRate", latest.getPovertyRate());
-        }
-        return card;
-    }
-
-    private Map<String, Object> buildProjectOverview(List<CountyProject> projects, PovertyCounty county) {
-        Map<String, Object> overview = new HashMap<>();
-        double totalInvest = projects.stream()
-                .map(CountyProject::getInvestment)
-                .filter(Objects::nonNull)
-                .mapToDouble(Double::doubleValue)
-                .sum();
-        int beneficiaries = projects.stream()
-                .map(CountyProject::getBeneficiaries)
-                .filter(Objects::nonNull)
-                .mapToInt(Integer::intValue)
-                .sum();
-        overview.put("projectCount", projects.size());
-        overview.put("totalInvestment", round1(totalInvest));
-        overview.put("totalBeneficiaries", beneficiaries);
-        overview.put("coveragePopulation", county.getCoveragePopulation() != null
-                ? county.getCoveragePopulation()
-                : deriveCoveragePopulation(county));
-        return overview;
-    }
-
-    private Map<String, Object> mapIndicator(EconomicIndicator indicator) {
-        Map<String, Object> row = new HashMap<>();
-        row.put("year", indicator.getYear());
-        row.put("gdp", indicator.getGdp());
-        row.put("povertyRate", indicator.getPovertyRate());
-        row.put("ruralDisposableIncome", indicator.getRuralDisposableIncome());
-        row.put("gdpPerCapita", indicator.getGdpPerCapita());
-        row.put("gdpYoy", indicator.getGdpYoy());
-        row.put("fiscalRevenue", indicator.getFiscalRevenue());
-        return row;
+        return new CountySummary(
+                county.getCountyId(),
+                county.getCountyName(),
+                province != null ? province.getProvinceName() : null,
+                province != null ? province.getProvinceId() : null,
+                StringUtils.hasText(county.getPovertyLevel())
+                        ? county.getPovertyLevel()
+                        : deriveLevel(county),
+                derivePopulation(county),
+                deriveArea(county),
+                county.getDelistingYear(),
+                county.getDelistingYear() != null ? county.getDelistingYear() + "-12-31" : "持续推进中",
+                deriveDelistedHouseholds(county),
+                deriveDelistedPopulation(county),
+                StringUtils.hasText(county.getMainIndustries())
+                        ? county.getMainIndustries()
+                        : pickIndustryFallback(county),
+                StringUtils.hasText(county.getEducationSupport())
+                        ? county.getEducationSupport()
+                        : defaultEducationSupport(county),
+                projectTotals.projectCount(),
+                projectTotals.industryProjectCount(),
+                county.getCoveragePopulation() != null
+                        ? county.getCoveragePopulation()
+                        : deriveCoveragePopulation(county),
+                county.getTotalInvestment() != null
+                        ? county.getTotalInvestment()
+                        : round1(projectTotals.investment()),
+                LatestIndicator.from(latest));
+    }
+
+    private Kpi buildKpi(EconomicIndicator latest, PovertyCounty county) {
+        return new Kpi(
+                county.getPovertyAlleviationRate() != null
+                        ? county.getPovertyAlleviationRate()
+                        : deriveDefaultKpi(county, 88, 98),
+                county.getEconomicGrowthRate() != null
+                        ? county.getEconomicGrowthRate()
+                        : deriveDefaultKpi(county, 4.5, 9.5),
+                county.getEmploymentRate() != null
+                        ? county.getEmploymentRate()
+                        : deriveDefaultKpi(county, 82, 95),
+                latest != null ? latest.getPovertyRate() : null);
+    }
+
+    // 项目数、投资与受益人数取自汇总表，不再逐条累加
+    private ProjectOverview buildProjectOverview(ProjectRollupService.Totals projectTotals, PovertyCounty county) {
+        return new ProjectOverview(
+                projectTotals.projectCount(),
+                round1(projectTotals.investment()),
+                projectTotals.beneficiaries(),
+                county.getCoveragePopulation() != null
+                        ? county.getCoveragePopulation()
+                        : deriveCoveragePopulation(county));
     }
 
     private void assertCountyExists(Long id) {
@@ -387,6 +527,110 @@ public class CountyController {
         return Math.round(value * 10.0) / 10.0;
     }
 
+    /**
+     * @param page       offset page number, {@code null} when the request used a cursor
+     * @param nextCursor cursor for the following page when sorting by countyId, otherwise {@code null}
+     */
+    public record CountyPage<T>(
+            List<T> items,
+            long total,
+            Integer page,
+            int size,
+            Long nextCursor
+    ) {}
+
+    public record CountyDetail(
+            CountySummary county,
+            Kpi kpis,
+            ProjectOverview projectOverview,
+            List<CountyProject> projects,
+            List<EconomicIndicator> indicators,
+            List<IndicatorPoint> indicatorTrend
+    ) {}
+
+    public record CountySummary(
+            Long countyId,
+            String countyName,
+            String province,
+            Long provinceId,
+            String povertyLevel,
+            double population,
+            double area,
+            Integer delistingYear,
+            String delistingDate,
+            long delistedHouseholds,
+            long delistedPopulation,
+            String mainIndustries,
+            String educationSupport,
+            int supportProjects,
+            long industrialProjects,
+            int coveragePopulation,
+            double totalInvestment,
+            // 无年度指标时整组字段不输出
+            @JsonUnwrapped LatestIndicator latest
+    ) {}
+
+    public record LatestIndicator(
+            Double gdp,
+            Double incomePerCapita,
+            Double gdpPerCapita,
+            Double povertyRate,
+            Double fiscalRevenue,
+            Double gdpYoy
+    ) {
+        static LatestIndicator from(EconomicIndicator indicator) {
+            if (indicator == null) return null;
+            return new LatestIndicator(
+                    indicator.getGdp(),
+                    indicator.getRuralDisposableIncome(),
+                    indicator.getGdpPerCapita(),
+                    indicator.getPovertyRate(),
+                    indicator.getFiscalRevenue(),
+                    indicator.getGdpYoy()
+            );
+        }
+    }
+
+    public record Kpi(
+            double povertyAlleviationRate,
+            double economicGrowthRate,
+            double employmentRate,
+            @JsonInclude(JsonInclude.Include.NON_NULL) Double povertyRate
+    ) {}
+
+    public record ProjectOverview(
+            int projectCount,
+            double totalInvestment,
+            long totalBeneficiaries,
+            int coveragePopulation
+    ) {}
+
+    public record IndicatorPoint(
+            Integer year,
+            Double gdp,
+            Double povertyRate,
+            Double ruralDisposableIncome,
+            Double gdpPerCapita,
+            Double gdpYoy,
+            Double fiscalRevenue
+    ) {
+        static IndicatorPoint from(EconomicIndicator indicator) {
+            return new IndicatorPoint(
+                    indicator.getYear(),
+                    indicator.getGdp(),
+                    indicator.getPovertyRate(),
+                    indicator.getRuralDisposableIncome(),
+                    indicator.getGdpPerCapita(),
+                    indicator.getGdpYoy(),
+                    indicator.getFiscalRevenue()
+            );
+        }
+    }
+
+    /**
+     * Editable county attributes. Total investment is not among them: it is maintained from the county's
+     * projects by {@link ProjectRollupService}.
+     */
     public static class CountyUpdateRequest {
         private String countyName;
         private Long provinceId;
@@ -397,7 +641,6 @@ public class CountyController {
         private Double economicGrowthRate;
         private Double employmentRate;
         private Integer coveragePopulation;
-        private Double totalInvestment;
         private String mainIndustries;
         private String educationSupport;
 
@@ -473,14 +716,6 @@ public class CountyController {
             this.coveragePopulation = coveragePopulation;
         }
 
-        public Double getTotalInvestment() {
-            return totalInvestment;
-        }
-
-        public void setTotalInvestment(Double totalInvestment) {
-            this.totalInvestment = totalInvestment;
-        }
-
         public String getMainIndustries() {
             return mainIndustries;
         }
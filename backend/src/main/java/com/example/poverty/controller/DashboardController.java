@@ -1,31 +1,118 @@
 package com.example.poverty.controller;
 
+import com.example.poverty.service.AnalysisContext;
+import com.example.poverty.service.DashboardResultCache;
 import com.example.poverty.service.DashboardService;
+import com.example.poverty.service.DataVersion;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api")
 public class DashboardController {
     private final DashboardService dashboardService;
+    private final DashboardResultCache resultCache;
+    private final DataVersion dataVersion;
+    private final ObjectMapper objectMapper;
 
-    public DashboardController(DashboardService dashboardService) { 
+    public DashboardController(DashboardService dashboardService,
+                               DashboardResultCache resultCache,
+                               DataVersion dataVersion,
+                               ObjectMapper objectMapper) { 
         this.dashboardService = dashboardService; 
+        this.resultCache = resultCache;
+        this.dataVersion = dataVersion;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/dashboard/charts")
-    public Map<String, Object> getChartsData(@RequestParam(required = false) Integer year) {
-        return dashboardService.getChartsData(year);
+    public ResponseEntity<DashboardService.ChartsData> getChartsData(@RequestParam(required = false) Integer year,
+                                                                     WebRequest request) {
+        return conditional(request, new DashboardResultCache.Key("dashboard/charts", year, null),
+                () -> dashboardService.getChartsData(year), result -> true);
     }
 
     @GetMapping("/indicators/summary")
-    public Map<String, Object> getSummary(@RequestParam(required = false) Integer year) {
-        return dashboardService.getSummary(year);
+    public ResponseEntity<DashboardService.Summary> getSummary(@RequestParam(required = false) Integer year,
+                                                               WebRequest request) {
+        return conditional(request, new DashboardResultCache.Key("indicators/summary", year, null),
+                () -> dashboardService.getSummary(year), result -> true);
     }
 
+    /**
+     * The small sections come from the result cache; the per-county arrays are streamed from the column
+     * store after them, so the response size does not drive heap use.
+     * <p>
+     * The data version and the store snapshot are read once per request: the ETag, the cached sections
+     * and the streamed arrays all belong to them, even if the store is reloaded while the body is written.
+     */
     @GetMapping("/indicators/charts")
-    public Map<String, Object> getAnalysisData(@RequestParam(required = false) Integer year) {
-        return dashboardService.getAnalysisData(year);
+    public ResponseEntity<StreamingResponseBody> getAnalysisData(@RequestParam(required = false) Integer year,
+                                                                 @RequestParam(required = false) String province,
+                                                                 WebRequest request) {
+        String scope = StringUtils.hasText(province) ? province.trim() : null;
+        // 先读版本再取快照：快照发布后才会递增版本，响应内容不会比 ETag 更旧
+        long version = dataVersion.current();
+        String etag = dataVersion.etag(version);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        AnalysisContext context = dashboardService.analysisContext(year, scope);
+        // 先在请求线程内完成小分区计算，出错时仍可返回正常的错误响应
+        AtomicBoolean built = new AtomicBoolean();
+        DashboardService.AnalysisSections sections = resultCache.get(
+                new DashboardResultCache.Key("indicators/charts", year, scope), version,
+                () -> {
+                    built.set(true);
+                    return dashboardService.getAnalysisData(context);
+                },
+                DashboardService::isComplete);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+                dashboardService.writeAnalysisData(context, sections, built.get(), generator);
+            }
+        };
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/dashboard/cache/stats")
+    public DashboardResultCache.Stats getCacheStats() {
+        return resultCache.stats();
+    }
+
+    /**
+     * Answers If-None-Match with 304 straight from the data version, before any result is computed.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request,
+                                              DashboardResultCache.Key key,
+                                              Supplier<T> loader,
+                                              Predicate<T> cacheable) {
+        String etag = dataVersion.etag();
+        if (request.checkNotModified(etag)) {
+            // checkNotModified 已写入 304 状态与 ETag
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(resultCache.get(key, loader, cacheable));
     }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.example.poverty.controller;
+
+import com.example.poverty.service.ExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Downloads of indicators, counties and projects as CSV or NDJSON. Rows are streamed straight from the
+ * database to the response; the body is gzip-compressed when the client accepts it or {@code gzip=true}.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN', 'ANALYST')")
+    @GetMapping("/{dataset}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String dataset,
+                                                        @RequestParam(defaultValue = "csv") String format,
+                                                        @RequestParam(required = false) Integer year,
+                                                        @RequestParam(required = false) Long provinceId,
+                                                        @RequestParam(required = false) Boolean gzip,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportService.Dataset target;
+        ExportService.Format outputFormat;
+        try {
+            target = ExportService.Dataset.fromPath(dataset);
+            outputFormat = ExportService.Format.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "不支持的导出类型: " + dataset + "/" + format);
+        }
+        if (year != null && !target.supportsYear()) {
+            // 静默忽略会让文件名带上年份而内容不按年份筛选
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "该导出类型不支持按年份筛选: " + dataset);
+        }
+        boolean compress = gzip != null
+                ? gzip
+                : StringUtils.hasText(acceptEncoding) && acceptEncoding.toLowerCase().contains("gzip");
+
+        String filename = target.name().toLowerCase() + (year != null ? "-" + year : "")
+                + "." + outputFormat.extension();
+        StreamingResponseBody body = out -> {
+            if (compress) {
+                // 压缩流由这里关闭，以写出 gzip 尾部
+                try (OutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024)) {
+                    exportService.export(target, outputFormat, year, provinceId, gzipOut);
+                }
+            } else {
+                exportService.export(target, outputFormat, year, provinceId, out);
+            }
+        };
+
+        // gzip=true 时下载的是 .gz 文件本身，类型随之改为 application/gzip
+        boolean gzipFile = compress && gzip != null;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(gzipFile
+                        ? MediaType.parseMediaType("application/gzip")
+                        : MediaType.parseMediaType(outputFormat.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename
+                        + (gzipFile ? ".gz" : "") + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (compress && gzip == null) {
+            // 按 Accept-Encoding 协商时作为传输编码，浏览器会自动解压
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.poverty.controller;
+
+import com.example.poverty.service.BulkImportService;
+import com.example.poverty.service.ImportMonitor;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+
+/**
+ * Bulk upload of indicators and projects. The request body is CSV with a header row, or NDJSON when
+ * the content type mentions json or {@code format=ndjson} is given.
+ */
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+    private final BulkImportService importService;
+    private final ImportMonitor importMonitor;
+
+    public ImportController(BulkImportService importService, ImportMonitor importMonitor) {
+        this.importService = importService;
+        this.importMonitor = importMonitor;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/indicators")
+    public BulkImportService.ImportResult importIndicators(@RequestParam(required = false) String format,
+                                                           HttpServletRequest request) {
+        try {
+            return importService.importIndicators(request.getInputStream(), resolveFormat(format, request));
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ex.getMessage());
+        } catch (IOException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "导入数据格式错误: " + ex.getMessage());
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/projects")
+    public BulkImportService.ImportResult importProjects(@RequestParam(required = false) String format,
+                                                         HttpServletRequest request) {
+        try {
+            return importService.importProjects(request.getInputStream(), resolveFormat(format, request));
+        } catch (IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, ex.getMessage());
+        } catch (IOException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "导入数据格式错误: " + ex.getMessage());
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/status")
+    public ImportMonitor.ImportStatus getImportStatus() {
+        return importMonitor.currentStatus();
+    }
+
+    private BulkImportService.Format resolveFormat(String format, HttpServletRequest request) {
+        if (StringUtils.hasText(format)) {
+            return "ndjson".equalsIgnoreCase(format.trim()) || "json".equalsIgnoreCase(format.trim())
+                    ? BulkImportService.Format.NDJSON
+                    : BulkImportService.Format.CSV;
+        }
+        return BulkImportService.Format.fromContentType(request.getContentType());
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.poverty.controller;
+
+import com.example.poverty.repository.CountyProjectRepository.ProjectListItem;
+import com.example.poverty.service.ProjectService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Projects across all counties: a filtered, paged list and portfolio totals. Both are answered by
+ * single SQL queries over {@code county_project}, never by walking counties.
+ */
+@RestController
+@RequestMapping("/api/projects")
+public class ProjectController {
+    private final ProjectService projectService;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // 对外排序字段 -> 实体属性
+    private static final Map<String, String> SORT_FIELDS = Map.of(
+            "projectid", "projectId",
+            "investment", "investment",
+            "beneficiaries", "beneficiaries",
+            "progress", "progress",
+            "startyear", "startYear",
+            "endyear", "endYear");
+
+    public ProjectController(ProjectService projectService) {
+        this.projectService = projectService;
+    }
+
+    /**
+     * {@code sort} is projectId (default), investment, beneficiaries, progress, startYear or endYear.
+     */
+    @GetMapping
+    public ProjectPage list(@RequestParam(required = false) String category,
+                            @RequestParam(required = false) String status,
+                            @RequestParam(required = false) String leadUnit,
+                            @RequestParam(required = false) Long provinceId,
+                            @RequestParam(required = false) Integer fromYear,
+                            @RequestParam(required = false) Integer toYear,
+                            @RequestParam(defaultValue = "0") int page,
+                            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                            @RequestParam(required = false) String sort,
+                            @RequestParam(required = false) String order) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size需在1-" + MAX_PAGE_SIZE + "之间");
+        }
+        if (page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page不能为负数");
+        }
+        String property = StringUtils.hasText(sort)
+                ? SORT_FIELDS.get(sort.trim().toLowerCase(Locale.ROOT))
+                : "projectId";
+        if (property == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "不支持的排序字段: " + sort);
+        }
+        Sort.Direction direction = "desc".equalsIgnoreCase(order) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // projectId 作为次序键，保证翻页稳定
+        Sort ordering = "projectId".equals(property)
+                ? Sort.by(direction, property)
+                : Sort.by(direction, property).and(Sort.by(Sort.Direction.ASC, "projectId"));
+
+        Page<ProjectListItem> result = projectService.search(
+                filter(category, status, leadUnit, provinceId, fromYear, toYear),
+                PageRequest.of(page, size, ordering));
+        return new ProjectPage(result.getContent(), result.getTotalElements(), page, size);
+    }
+
+    /**
+     * Investment, beneficiaries and project count grouped by {@code groupBy}, a comma-separated subset of
+     * category, province and year (the project's start year).
+     */
+    @GetMapping("/stats")
+    public List<ProjectService.PortfolioStat> stats(@RequestParam(defaultValue = "category") String groupBy,
+                                                    @RequestParam(required = false) String category,
+                                                    @RequestParam(required = false) String status,
+                                                    @RequestParam(required = false) String leadUnit,
+                                                    @RequestParam(required = false) Long provinceId,
+                                                    @RequestParam(required = false) Integer fromYear,
+                                                    @RequestParam(required = false) Integer toYear) {
+        Set<ProjectService.Dimension> dimensions = EnumSet.noneOf(ProjectService.Dimension.class);
+        for (String part : groupBy.split(",")) {
+            if (!StringUtils.hasText(part)) {
+                continue;
+            }
+            try {
+                dimensions.add(ProjectService.Dimension.valueOf(part.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "不支持的分组维度: " + part.trim());
+            }
+        }
+        return projectService.portfolio(filter(category, status, leadUnit, provinceId, fromYear, toYear), dimensions);
+    }
+
+    private ProjectService.ProjectFilter filter(String category, String status, String leadUnit, Long provinceId,
+                                                Integer fromYear, Integer toYear) {
+        if (fromYear != null && toYear != null && fromYear > toYear) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "起始年份不能晚于结束年份");
+        }
+        return new ProjectService.ProjectFilter(
+                StringUtils.hasText(category) ? category.trim() : null,
+                StringUtils.hasText(status) ? status.trim() : null,
+                StringUtils.hasText(leadUnit) ? leadUnit.trim() : null,
+                provinceId, fromYear, toYear);
+    }
+
+    public record ProjectPage(
+            List<ProjectListItem> items,
+            long total,
+            int page,
+            int size
+    ) {}
+}
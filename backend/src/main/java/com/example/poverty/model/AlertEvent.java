@@ -6,7 +6,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "alert_event")
+@Table(name = "alert_event",
+        uniqueConstraints = @UniqueConstraint(name = "uk_alert_event_rule_county_year",
+                columnNames = {"rule_id", "county_id", "year"}))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class AlertEvent {
@@ -4,7 +4,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "county_project")
+@Table(name = "county_project", indexes = {
+        @Index(name = "idx_project_category_status", columnList = "category, status"),
+        @Index(name = "idx_project_start_year", columnList = "start_year"),
+        @Index(name = "idx_project_lead_unit", columnList = "lead_unit")
+})
 public class CountyProject {
 
     @Id
@@ -0,0 +1,60 @@
+package com.example.poverty.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Per-county project totals for one (category, status) pair, maintained incrementally on every project
+ * write. A missing category or status is stored as an empty string so the unique key covers it.
+ */
+@Entity
+@Table(name = "county_project_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rollup_county_category_status",
+                columnNames = {"county_id", "category", "status"}))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class CountyProjectRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "county_id", nullable = false)
+    private Long countyId;
+
+    @Column(nullable = false, length = 50)
+    private String category;
+
+    @Column(nullable = false, length = 30)
+    private String status;
+
+    @Column(nullable = false)
+    private Integer projectCount;
+
+    @Column(nullable = false)
+    private Double investment;
+
+    @Column(nullable = false)
+    private Long beneficiaries;
+
+    // Explicit getters/setters in case Lombok isn't active
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getCountyId() { return countyId; }
+    public void setCountyId(Long countyId) { this.countyId = countyId; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Integer getProjectCount() { return projectCount; }
+    public void setProjectCount(Integer projectCount) { this.projectCount = projectCount; }
+
+    public Double getInvestment() { return investment; }
+    public void setInvestment(Double investment) { this.investment = investment; }
+
+    public Long getBeneficiaries() { return beneficiaries; }
+    public void setBeneficiaries(Long beneficiaries) { this.beneficiaries = beneficiaries; }
+}
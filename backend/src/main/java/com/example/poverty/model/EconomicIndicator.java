@@ -5,7 +5,8 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "economic_indicator")
+@Table(name = "economic_indicator",
+        uniqueConstraints = @UniqueConstraint(name = "uk_indicator_county_year", columnNames = {"county_id", "year"}))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class EconomicIndicator {
@@ -1,9 +1,13 @@
 package com.example.poverty.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "role")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "reference.role")
 public class Role {
     @Id 
     @GeneratedValue(strategy = GenerationType.IDENTITY)
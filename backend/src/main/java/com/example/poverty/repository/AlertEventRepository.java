@@ -5,10 +5,14 @@ import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface AlertEventRepository extends JpaRepository<AlertEvent, Long> {
     List<AlertEvent> findByAcknowledgedByIsNull();
 
     @EntityGraph(attributePaths = {"rule", "county", "county.province"})
     List<AlertEvent> findAll();
+
+    @EntityGraph(attributePaths = {"rule", "county", "county.province"})
+    Optional<AlertEvent> findById(Long eventId);
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.example.poverty.repository;
+
+import com.example.poverty.repository.CountyProjectRepository.PortfolioCell;
+import com.example.poverty.repository.CountyProjectRepository.ProjectListItem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Project list and portfolio queries whose WHERE clause only contains the filters actually given, so
+ * the database can use the category/status, lead unit and start year indexes. A {@code null} argument
+ * means "no filter".
+ */
+public interface CountyProjectQueries {
+
+    Page<ProjectListItem> search(String category, String status, String leadUnit, Long provinceId,
+                                 Integer fromYear, Integer toYear, Pageable pageable);
+
+    /**
+     * Totals per category × province × start year for the filtered projects; callers roll these cells up
+     * to coarser groupings.
+     */
+    List<PortfolioCell> aggregate(String category, String status, String leadUnit, Long provinceId,
+                                  Integer fromYear, Integer toYear);
+}
@@ -0,0 +1,115 @@
+package com.example.poverty.repository;
+
+import com.example.poverty.repository.CountyProjectRepository.PortfolioCell;
+import com.example.poverty.repository.CountyProjectRepository.ProjectListItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spring Data fragment behind {@link CountyProjectQueries}; picked up by the {@code Impl} suffix.
+ */
+class CountyProjectQueriesImpl implements CountyProjectQueries {
+
+    private static final String FROM = "from CountyProject j join j.county c left join c.province p";
+
+    // 排序字段只接受项目表上的列，其余由调用方校验
+    private static final Set<String> SORTABLE = Set.of(
+            "projectId", "investment", "beneficiaries", "progress", "startYear", "endYear");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProjectListItem> search(String category, String status, String leadUnit, Long provinceId,
+                                        Integer fromYear, Integer toYear, Pageable pageable) {
+        Filter filter = new Filter(category, status, leadUnit, provinceId, fromYear, toYear);
+        TypedQuery<ProjectListItem> query = entityManager.createQuery(
+                "select new com.example.poverty.repository.CountyProjectRepository$ProjectListItem(" +
+                "j.projectId, j.projectName, j.category, j.status, j.investment, j.beneficiaries, " +
+                "j.progress, j.startYear, j.endYear, j.leadUnit, c.countyId, c.countyName, " +
+                "p.provinceId, p.provinceName) " + FROM + filter.where() + orderBy(pageable.getSort()),
+                ProjectListItem.class);
+        filter.bind(query);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<ProjectListItem> content = query.getResultList();
+
+        // 首页不足一页时无需再查总数
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery("select count(j) " + FROM + filter.where(), Long.class);
+            filter.bind(count);
+            return count.getSingleResult();
+        });
+    }
+
+    @Override
+    public List<PortfolioCell> aggregate(String category, String status, String leadUnit, Long provinceId,
+                                         Integer fromYear, Integer toYear) {
+        Filter filter = new Filter(category, status, leadUnit, provinceId, fromYear, toYear);
+        TypedQuery<PortfolioCell> query = entityManager.createQuery(
+                "select new com.example.poverty.repository.CountyProjectRepository$PortfolioCell(" +
+                "j.category, p.provinceId, p.provinceName, j.startYear, count(j), sum(j.investment), " +
+                "sum(j.beneficiaries)) " + FROM + filter.where() +
+                " group by j.category, p.provinceId, p.provinceName, j.startYear",
+                PortfolioCell.class);
+        filter.bind(query);
+        return query.getResultList();
+    }
+
+    private static String orderBy(Sort sort) {
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+            orders.add("j." + order.getProperty() + (order.isDescending() ? " desc" : " asc"));
+        }
+        return orders.isEmpty() ? "" : " order by " + String.join(", ", orders);
+    }
+
+    /**
+     * WHERE clause and parameters for the given filters; absent filters add no predicate at all.
+     */
+    private static final class Filter {
+        private final List<String> predicates = new ArrayList<>();
+        private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+        Filter(String category, String status, String leadUnit, Long provinceId, Integer fromYear, Integer toYear) {
+            add("j.category = :category", "category", category);
+            add("j.status = :status", "status", status);
+            add("j.leadUnit = :leadUnit", "leadUnit", leadUnit);
+            add("p.provinceId = :provinceId", "provinceId", provinceId);
+            // 与 [fromYear, toYear] 有交集的项目
+            add("j.startYear <= :toYear", "toYear", toYear);
+            add("(j.endYear is null or j.endYear >= :fromYear)", "fromYear", fromYear);
+        }
+
+        private void add(String predicate, String name, Object value) {
+            if (value != null) {
+                predicates.add(predicate);
+                parameters.put(name, value);
+            }
+        }
+
+        String where() {
+            return predicates.isEmpty() ? "" : " where " + String.join(" and ", predicates);
+        }
+
+        void bind(TypedQuery<?> query) {
+            parameters.forEach(query::setParameter);
+        }
+    }
+}
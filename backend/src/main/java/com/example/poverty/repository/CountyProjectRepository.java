@@ -3,11 +3,40 @@ package com.example.poverty.repository;
 import com.example.poverty.model.CountyProject;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface CountyProjectRepository extends JpaRepository<CountyProject, Long> {
+public interface CountyProjectRepository extends JpaRepository<CountyProject, Long>, CountyProjectQueries {
     List<CountyProject> findByCounty_CountyId(Long countyId);
-}
-
+    List<CountyProject> findByCounty_CountyIdIn(Collection<Long> countyIds);
 
+    /**
+     * One row of the national project list, with county and province names joined in SQL.
+     */
+    record ProjectListItem(
+            Long projectId,
+            String projectName,
+            String category,
+            String status,
+            Double investment,
+            Integer beneficiaries,
+            Integer progress,
+            Integer startYear,
+            Integer endYear,
+            String leadUnit,
+            Long countyId,
+            String countyName,
+            Long provinceId,
+            String provinceName
+    ) {}
 
+    record PortfolioCell(
+            String category,
+            Long provinceId,
+            String provinceName,
+            Integer startYear,
+            Long projectCount,
+            Double investment,
+            Long beneficiaries
+    ) {}
+}
@@ -0,0 +1,12 @@
+package com.example.poverty.repository;
+
+import com.example.poverty.model.CountyProjectRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CountyProjectRollupRepository extends JpaRepository<CountyProjectRollup, Long> {
+    List<CountyProjectRollup> findByCountyId(Long countyId);
+    List<CountyProjectRollup> findByCountyIdIn(Collection<Long> countyIds);
+}
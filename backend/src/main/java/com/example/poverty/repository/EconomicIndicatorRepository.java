@@ -2,11 +2,106 @@ package com.example.poverty.repository;
 
 import com.example.poverty.model.EconomicIndicator;
 import com.example.poverty.model.PovertyCounty;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface EconomicIndicatorRepository extends JpaRepository<EconomicIndicator, Long> {
+    @EntityGraph(attributePaths = {"county", "county.province"})
     List<EconomicIndicator> findByCountyAndYearBetweenOrderByYearAsc(PovertyCounty county, Integer start, Integer end);
+
+    @EntityGraph(attributePaths = {"county", "county.province"})
     List<EconomicIndicator> findByCounty_OrderByYearAsc(PovertyCounty county);
+
+    @EntityGraph(attributePaths = {"county", "county.province"})
     List<EconomicIndicator> findByYear(Integer year);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"county", "county.province"})
+    List<EconomicIndicator> findByCounty_CountyIdInOrderByYearAsc(Collection<Long> countyIds);
+
+    @Query("select i.county.countyId as countyId, i.year as year, i.gdp as gdp, i.gdpYoy as gdpYoy, " +
+            "i.gdpPerCapita as gdpPerCapita, i.ruralDisposableIncome as ruralDisposableIncome, " +
+            "i.ruralIncomeYoy as ruralIncomeYoy, i.fiscalRevenue as fiscalRevenue, " +
+            "i.fiscalRevenueYoy as fiscalRevenueYoy, i.povertyRate as povertyRate " +
+            "from EconomicIndicator i where i.county is not null")
+    List<IndicatorValues> findAllValues();
+
+    /**
+     * Indicator rows with a year for counties in [{@code fromCountyId}, {@code toCountyId}], ordered by
+     * (county, year) and read through a cursor, so a consumer can walk one county's history at a time.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select i.county.countyId as countyId, i.year as year, i.gdp as gdp, i.gdpYoy as gdpYoy, " +
+            "i.gdpPerCapita as gdpPerCapita, i.ruralDisposableIncome as ruralDisposableIncome, " +
+            "i.ruralIncomeYoy as ruralIncomeYoy, i.fiscalRevenue as fiscalRevenue, " +
+            "i.fiscalRevenueYoy as fiscalRevenueYoy, i.povertyRate as povertyRate " +
+            "from EconomicIndicator i where i.county.countyId between :fromCountyId and :toCountyId " +
+            "and i.year is not null " +
+            "order by i.county.countyId, i.year")
+    Stream<IndicatorValues> streamValuesOrderByCountyAndYear(@Param("fromCountyId") long fromCountyId,
+                                                             @Param("toCountyId") long toCountyId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select i.county.countyId as countyId, i.year as year, i.gdp as gdp, i.gdpYoy as gdpYoy, " +
+            "i.gdpPerCapita as gdpPerCapita, i.ruralDisposableIncome as ruralDisposableIncome, " +
+            "i.ruralIncomeYoy as ruralIncomeYoy, i.fiscalRevenue as fiscalRevenue, " +
+            "i.fiscalRevenueYoy as fiscalRevenueYoy, i.povertyRate as povertyRate " +
+            "from EconomicIndicator i where i.county.countyId in :countyIds and i.year is not null " +
+            "order by i.county.countyId, i.year")
+    Stream<IndicatorValues> streamValuesForCountiesOrderByCountyAndYear(@Param("countyIds") Collection<Long> countyIds);
+
+    @Query("select i.year as year, count(i) as rowCount, " +
+            "avg(coalesce(i.povertyRate, 0.0)) as avgPovertyRate, " +
+            "avg(coalesce(i.ruralDisposableIncome, 0.0)) as avgRuralIncome, " +
+            "coalesce(sum(i.gdp), 0.0) as totalGdp " +
+            "from EconomicIndicator i where i.year in :years group by i.year order by i.year")
+    List<YearAggregate> aggregateByYears(@Param("years") Collection<Integer> years);
+
+    @Query("select coalesce(sum(case when i.povertyRate < 2 then 1 else 0 end), 0) as below2, " +
+            "coalesce(sum(case when i.povertyRate >= 2 and i.povertyRate < 5 then 1 else 0 end), 0) as from2to5, " +
+            "coalesce(sum(case when i.povertyRate >= 5 and i.povertyRate < 10 then 1 else 0 end), 0) as from5to10, " +
+            "coalesce(sum(case when i.povertyRate >= 10 then 1 else 0 end), 0) as above10 " +
+            "from EconomicIndicator i where i.year = :year")
+    PovertyHistogram povertyHistogram(@Param("year") Integer year);
+
+    /**
+     * Flat, entity-free view of one indicator row, used to fill the in-memory column store.
+     */
+    interface IndicatorValues {
+        Long getCountyId();
+        Integer getYear();
+        Double getGdp();
+        Double getGdpYoy();
+        Double getGdpPerCapita();
+        Double getRuralDisposableIncome();
+        Double getRuralIncomeYoy();
+        Double getFiscalRevenue();
+        Double getFiscalRevenueYoy();
+        Double getPovertyRate();
+    }
+
+    /**
+     * Per-year KPI aggregates; averages count a missing value as 0, like the dashboard summary does.
+     */
+    interface YearAggregate {
+        Integer getYear();
+        Long getRowCount();
+        Double getAvgPovertyRate();
+        Double getAvgRuralIncome();
+        Double getTotalGdp();
+    }
+
+    interface PovertyHistogram {
+        Long getBelow2();
+        Long getFrom2to5();
+        Long getFrom5to10();
+        Long getAbove10();
+    }
+}
@@ -1,11 +1,99 @@
 package com.example.poverty.repository;
 
 import com.example.poverty.model.PovertyCounty;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface PovertyCountyRepository extends JpaRepository<PovertyCounty, Long> {
+    @EntityGraph(attributePaths = {"province"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference.queries")
+    })
     List<PovertyCounty> findByProvince_ProvinceId(Long provinceId);
+
+    @EntityGraph(attributePaths = {"province"})
     List<PovertyCounty> findByCountyNameContainingIgnoreCase(String keyword);
+
+    @EntityGraph(attributePaths = {"province"})
     List<PovertyCounty> findByCountyNameContainingIgnoreCaseAndProvince_ProvinceId(String keyword, Long provinceId);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"province"})
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "reference.queries")
+    })
+    List<PovertyCounty> findAll();
+
+    @EntityGraph(attributePaths = {"province"})
+    Optional<PovertyCounty> findById(Long countyId);
+
+    @EntityGraph(attributePaths = {"province"})
+    List<PovertyCounty> findByCountyIdIn(Collection<Long> countyIds);
+
+    @Query("select c.countyId as countyId, c.countyName as countyName, p.provinceId as provinceId, " +
+            "p.provinceName as provinceName, c.delistingYear as delistingYear, c.mainIndustries as mainIndustries " +
+            "from PovertyCounty c left join c.province p order by c.countyId")
+    List<CountyMeta> findAllMeta();
+
+    @Query("select c.countyId as countyId, c.countyName as countyName, p.provinceId as provinceId, " +
+            "p.provinceName as provinceName, c.povertyLevel as povertyLevel " +
+            "from PovertyCounty c left join c.province p order by c.countyId")
+    List<CountyListItem> findListItems();
+
+    // 省份条件单独成方法，避免 "参数为空或相等" 写法让省份索引失效
+    @Query("select c.countyId as countyId, c.countyName as countyName, p.provinceId as provinceId, " +
+            "p.provinceName as provinceName, c.povertyLevel as povertyLevel " +
+            "from PovertyCounty c left join c.province p where c.province.provinceId = :provinceId " +
+            "order by c.countyId")
+    List<CountyListItem> findListItemsByProvinceId(@Param("provinceId") Long provinceId);
+
+    @Query("select c.countyId as countyId, c.countyName as countyName, p.provinceId as provinceId, " +
+            "p.provinceName as provinceName, c.povertyLevel as povertyLevel " +
+            "from PovertyCounty c left join c.province p where c.countyId in :countyIds")
+    List<CountyListItem> findListItemsByCountyIdIn(@Param("countyIds") Collection<Long> countyIds);
+
+    long countByDelistingYearLessThanEqual(Integer year);
+
+    @Query("select p.provinceName as provinceName, count(c) as countyCount " +
+            "from PovertyCounty c join c.province p " +
+            "where p.provinceName is not null " +
+            "group by p.provinceId, p.provinceName order by p.provinceId")
+    List<ProvinceCount> countByProvince();
+
+    /**
+     * County attributes the dashboard aggregates need, with the province name joined in SQL.
+     */
+    interface CountyMeta {
+        Long getCountyId();
+        String getCountyName();
+        Long getProvinceId();
+        String getProvinceName();
+        Integer getDelistingYear();
+        String getMainIndustries();
+    }
+
+    /**
+     * The columns a county list row shows; read as a tuple, no entity or province proxy is created.
+     */
+    interface CountyListItem {
+        Long getCountyId();
+        String getCountyName();
+        Long getProvinceId();
+        String getProvinceName();
+        String getPovertyLevel();
+    }
+
+    interface ProvinceCount {
+        String getProvinceName();
+        Long getCountyCount();
+    }
+}
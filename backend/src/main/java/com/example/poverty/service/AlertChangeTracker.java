@@ -0,0 +1,98 @@
+package com.example.poverty.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records which counties and rules changed since the last alert scan. Writers call
+ * {@link #countiesChanged} / {@link #ruleChanged} inside their own transaction, so a rolled-back write
+ * leaves no mark. A scan takes the pending changes, evaluates the affected pairs and then
+ * {@link #consume consumes} exactly the log rows it saw; rows committed meanwhile stay for the next scan
+ * even if their id is lower. The log itself is the pending set, so there is no id watermark: one would
+ * skip such late-committed rows.
+ */
+@Service
+public class AlertChangeTracker {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_CHANGE_SQL =
+            "insert into alert_change_log (county_id, rule_id, changed_at) values (?, ?, ?)";
+
+    /**
+     * Pending changes: the log rows read and the counties and rules they name.
+     */
+    public record Changes(List<Long> changeIds, Set<Long> countyIds, Set<Long> ruleIds) {
+        public boolean isEmpty() {
+            return countyIds.isEmpty() && ruleIds.isEmpty();
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AlertChangeTracker(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void countiesChanged(Collection<Long> countyIds) {
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(countyIds));
+        if (distinct.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_CHANGE_SQL, distinct, distinct.size(), (ps, countyId) -> {
+            ps.setLong(1, countyId);
+            ps.setNull(2, Types.BIGINT);
+            ps.setTimestamp(3, now);
+        });
+    }
+
+    public void ruleChanged(Long ruleId) {
+        jdbcTemplate.update(INSERT_CHANGE_SQL, null, ruleId, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public boolean hasPendingChanges() {
+        Long value = jdbcTemplate.queryForObject("select count(*) from alert_change_log", Long.class);
+        return value != null && value > 0;
+    }
+
+    public Changes pendingChanges() {
+        List<Long> changeIds = new ArrayList<>();
+        Set<Long> countyIds = new LinkedHashSet<>();
+        Set<Long> ruleIds = new LinkedHashSet<>();
+        jdbcTemplate.query("select change_id, county_id, rule_id from alert_change_log order by change_id", rs -> {
+            changeIds.add(rs.getLong(1));
+            long countyId = rs.getLong(2);
+            if (!rs.wasNull()) {
+                countyIds.add(countyId);
+            }
+            long ruleId = rs.getLong(3);
+            if (!rs.wasNull()) {
+                ruleIds.add(ruleId);
+            }
+        });
+        return new Changes(changeIds, countyIds, ruleIds);
+    }
+
+    /**
+     * Drops the evaluated log rows.
+     */
+    @Transactional
+    public void consume(Changes changes) {
+        List<Long> changeIds = changes.changeIds();
+        if (!changeIds.isEmpty()) {
+            jdbcTemplate.batchUpdate("delete from alert_change_log where change_id = ?", changeIds, BATCH_SIZE,
+                    (ps, changeId) -> ps.setLong(1, changeId));
+        }
+    }
+}
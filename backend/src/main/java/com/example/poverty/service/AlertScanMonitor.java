@@ -3,47 +3,133 @@ package com.example.poverty.service;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
+/**
+ * State of the running (or last) alert scan, including the progress of each county-range partition.
+ * Only one scan runs at a time.
+ */
 @Component
 public class AlertScanMonitor {
 
     public record ScanStatus(
             String state,
+            String mode,
             LocalDateTime startedAt,
             LocalDateTime finishedAt,
             Long durationMs,
-            String message
+            String message,
+            EventCounts events,
+            List<PartitionStatus> partitions
     ) {
         public static ScanStatus idle() {
-            return new ScanStatus("IDLE", null, null, null, "等待触发");
+            return new ScanStatus("IDLE", null, null, null, null, "等待触发", EventCounts.NONE, List.of());
+        }
+
+        private ScanStatus withPartition(int index, UnaryOperator<PartitionStatus> change) {
+            List<PartitionStatus> next = new ArrayList<>(partitions);
+            next.set(index, change.apply(next.get(index)));
+            return new ScanStatus(state, mode, startedAt, finishedAt, durationMs, message, events,
+                    List.copyOf(next));
         }
     }
 
-    private final AtomicReference<ScanStatus> status = new AtomicReference<>(ScanStatus.idle());
+    /**
+     * How a scan's matches compared with the stored events: new (rule, county, year) keys, keys whose
+     * metric value changed, keys already stored with the same value, and unacknowledged stored events
+     * that no longer match and were removed.
+     */
+    public record EventCounts(int inserted, int updated, int unchanged, int removed) {
+        public static final EventCounts NONE = new EventCounts(0, 0, 0, 0);
 
-    public void markStarted() {
-        status.set(new ScanStatus("RUNNING", LocalDateTime.now(), null, null, "正在执行告警扫描"));
+        public EventCounts plus(EventCounts other) {
+            return new EventCounts(inserted + other.inserted, updated + other.updated,
+                    unchanged + other.unchanged, removed + other.removed);
+        }
     }
 
-    public void markCompleted(long durationMs) {
-        LocalDateTime now = LocalDateTime.now();
+    /**
+     * One partition covers counties with ids in [{@code firstCountyId}, {@code lastCountyId}].
+     */
+    public record PartitionStatus(
+            int partition,
+            long firstCountyId,
+            long lastCountyId,
+            String state,
+            int countiesTotal,
+            int countiesScanned,
+            EventCounts events,
+            Long durationMs,
+            String message
+    ) {
+        public static PartitionStatus pending(int partition, long firstCountyId, long lastCountyId, int countiesTotal) {
+            return new PartitionStatus(partition, firstCountyId, lastCountyId, "PENDING", countiesTotal, 0,
+                    EventCounts.NONE, null, null);
+        }
+    }
+
+    private final AtomicReference<ScanStatus> status = new AtomicReference<>(ScanStatus.idle());
+
+    /**
+     * @return {@code false} when another scan is still running
+     */
+    public boolean tryStart(String mode) {
         ScanStatus current = status.get();
-        LocalDateTime started = current != null ? current.startedAt : null;
-        status.set(new ScanStatus("COMPLETED", started, now, durationMs, "扫描已完成"));
+        if ("RUNNING".equals(current.state())) {
+            return false;
+        }
+        return status.compareAndSet(current,
+                new ScanStatus("RUNNING", mode, LocalDateTime.now(), null, null, "正在执行告警扫描",
+                EventCounts.NONE, List.of()));
+    }
+
+    public boolean isRunning() {
+        return "RUNNING".equals(status.get().state());
+    }
+
+    public void startPartitions(List<PartitionStatus> partitions) {
+        status.updateAndGet(current -> new ScanStatus(current.state(), current.mode(), current.startedAt(),
+                null, null, current.message(), EventCounts.NONE, List.copyOf(partitions)));
+    }
+
+    public void partitionStarted(int index) {
+        status.updateAndGet(current -> current.withPartition(index, p -> new PartitionStatus(p.partition(),
+                p.firstCountyId(), p.lastCountyId(), "RUNNING", p.countiesTotal(), 0, EventCounts.NONE,
+                null, null)));
+    }
+
+    public void partitionProgress(int index, int countiesScanned) {
+        status.updateAndGet(current -> current.withPartition(index, p -> new PartitionStatus(p.partition(),
+                p.firstCountyId(), p.lastCountyId(), p.state(), p.countiesTotal(), countiesScanned,
+                p.events(), null, null)));
+    }
+
+    public void partitionCompleted(int index, int countiesScanned, EventCounts events, long durationMs) {
+        status.updateAndGet(current -> current.withPartition(index, p -> new PartitionStatus(p.partition(),
+                p.firstCountyId(), p.lastCountyId(), "COMPLETED", p.countiesTotal(), countiesScanned,
+                events, durationMs, null)));
+    }
+
+    public void partitionFailed(int index, String message) {
+        status.updateAndGet(current -> current.withPartition(index, p -> new PartitionStatus(p.partition(),
+                p.firstCountyId(), p.lastCountyId(), "FAILED", p.countiesTotal(), p.countiesScanned(),
+                EventCounts.NONE, null, message)));
+    }
+
+    public void markCompleted(long durationMs, EventCounts events) {
+        status.updateAndGet(current -> new ScanStatus("COMPLETED", current.mode(), current.startedAt(),
+                LocalDateTime.now(), durationMs, "扫描已完成", events, current.partitions()));
     }
 
     public void markFailed(String message) {
-        LocalDateTime now = LocalDateTime.now();
-        ScanStatus current = status.get();
-        LocalDateTime started = current != null ? current.startedAt : null;
-        status.set(new ScanStatus("FAILED", started, now, null, message));
+        status.updateAndGet(current -> new ScanStatus("FAILED", current.mode(), current.startedAt(),
+                LocalDateTime.now(), null, message, current.events(), current.partitions()));
     }
 
     public ScanStatus currentStatus() {
         return status.get();
     }
 }
-
-
-
@@ -2,118 +2,457 @@ package com.example.poverty.service;
 
 import com.example.poverty.model.*;
 import com.example.poverty.repository.*;
+import com.example.poverty.service.IndicatorColumnStore.Metric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
+/**
+ * Evaluates enabled alert rules against the indicator history, either fully or only for the pairs
+ * affected by logged changes (see {@link AlertChangeTracker}). A scan is split into county-id
+ * ranges that run in parallel on {@code alertScanPartitionExecutor}, each in its own transaction, so a
+ * failed partition does not roll back the events of the others.
+ */
 @Service
 public class AlertScannerService {
 
     private static final Logger log = LoggerFactory.getLogger(AlertScannerService.class);
 
+    private static final Set<String> COMPARATORS = Set.of("lt", "lte", "gt", "gte");
+
+    // 每扫描这么多个县上报一次分区进度
+    private static final int PROGRESS_INTERVAL = 200;
+
+    // 增量扫描每条 IN 查询最多带的县数
+    private static final int MAX_COUNTIES_PER_QUERY = 1000;
+
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    // 唯一键 (rule_id, county_id, year) 兜底：并发写入同一键时退化为更新
+    private static final String UPSERT_EVENT_SQL =
+            "insert into alert_event (rule_id, county_id, year, metric_value, triggered_at) values (?, ?, ?, ?, ?) " +
+            "on duplicate key update metric_value = values(metric_value), triggered_at = values(triggered_at)";
+
+    private static final String UPDATE_EVENT_SQL =
+            "update alert_event set metric_value = ?, triggered_at = ? where event_id = ?";
+
+    // 已确认的事件保留作处理记录，只删除无人确认的
+    private static final String DELETE_EVENT_SQL =
+            "delete from alert_event where event_id = ? and acknowledged_by is null";
+
     private final AlertRuleRepository ruleRepo;
     private final EconomicIndicatorRepository indicatorRepo;
-    private final AlertEventRepository eventRepo;
-    private final PovertyCountyRepository countyRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final IndicatorColumnStore indicatorStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor partitionExecutor;
+    private final AlertChangeTracker changeTracker;
 
     private final AlertScanMonitor scanMonitor;
 
+    // 运行中收到的全量扫描请求，在当前扫描结束后补跑一次
+    private final AtomicBoolean fullScanQueued = new AtomicBoolean();
+
     public AlertScannerService(AlertRuleRepository ruleRepo, EconomicIndicatorRepository indicatorRepo,
-                               AlertEventRepository eventRepo, PovertyCountyRepository countyRepo,
-                               AlertScanMonitor scanMonitor) {
+                               JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                               IndicatorColumnStore indicatorStore, TransactionTemplate transactionTemplate,
+                               @Qualifier("alertScanPartitionExecutor") Executor partitionExecutor,
+                               AlertChangeTracker changeTracker, AlertScanMonitor scanMonitor) {
         this.ruleRepo = ruleRepo;
         this.indicatorRepo = indicatorRepo;
-        this.eventRepo = eventRepo;
-        this.countyRepo = countyRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.indicatorStore = indicatorStore;
+        this.transactionTemplate = transactionTemplate;
+        this.partitionExecutor = partitionExecutor;
+        this.changeTracker = changeTracker;
         this.scanMonitor = scanMonitor;
     }
 
-    @Transactional
+    public enum ScanMode {
+        /** Every enabled rule against every county. */
+        FULL,
+        /** Only the (rule, county) pairs touched by changes logged since the last scan. */
+        INCREMENTAL
+    }
+
     public void scanAllRules() {
-        runScan();
+        runScan(ScanMode.FULL);
     }
 
     @Async("alertScanExecutor")
-    @Transactional
     public void scanAllRulesAsync() {
-        runScan();
+        runScan(ScanMode.FULL);
+    }
+
+    public void scanChanges() {
+        runScan(ScanMode.INCREMENTAL);
+    }
+
+    @Async("alertScanExecutor")
+    public void scanChangesAsync() {
+        runScan(ScanMode.INCREMENTAL);
     }
 
-    protected void runScan() {
-        scanMonitor.markStarted();
+    protected void runScan(ScanMode mode) {
+        // 没有待处理变更时直接返回，不覆盖上一次扫描的状态
+        if (mode == ScanMode.INCREMENTAL && !changeTracker.hasPendingChanges()) {
+            return;
+        }
+        if (!scanMonitor.tryStart(mode.name())) {
+            if (mode == ScanMode.FULL) {
+                queueFullScan();
+            } else {
+                // 未消费的变更留在日志里，由下一次扫描处理
+                log.info("Alert scan ({}) skipped: another scan is still running", mode);
+            }
+            return;
+        }
         long start = System.currentTimeMillis();
         try {
-        List<AlertRule> rules = ruleRepo.findByEnabledTrue();
-            List<PovertyCounty> all = countyRepo.findAll();
-            for (AlertRule r : rules) {
-            for (PovertyCounty c : all) {
-                evaluateRuleForCounty(r, c);
-            }
-            }
+            // 全量扫描同样消费已记录的变更
+            AlertChangeTracker.Changes changes = changeTracker.pendingChanges();
+            List<CompiledRule> rules = ruleRepo.findByEnabledTrue().stream()
+                    .map(CompiledRule::compile)
+                    .flatMap(Optional::stream)
+                    .toList();
+            List<Partition> partitions = mode == ScanMode.FULL
+                    ? rangePartitions(rules, 0)
+                    : incrementalPartitions(rules, changes);
+            AlertScanMonitor.EventCounts events = scanPartitions(partitions);
+            changeTracker.consume(changes);
             long duration = System.currentTimeMillis() - start;
-            scanMonitor.markCompleted(duration);
-            log.info("Alert scan finished in {} ms", duration);
-        } catch (Exception ex) {
+            scanMonitor.markCompleted(duration, events);
+            log.info("Alert scan ({}) finished in {} ms: {} rules, {} changed counties, {} changed rules, "
+                            + "{} partitions, events {} inserted / {} updated / {} unchanged / {} removed", mode,
+                    duration, rules.size(), changes.countyIds().size(), changes.ruleIds().size(), partitions.size(),
+                    events.inserted(), events.updated(), events.unchanged(), events.removed());
+        } catch (RuntimeException ex) {
             scanMonitor.markFailed(ex.getMessage());
-            log.error("Alert scan failed", ex);
+            log.error("Alert scan ({}) failed", mode, ex);
             throw ex;
+        } finally {
+            runQueuedFullScan();
         }
     }
 
-    private void evaluateRuleForCounty(AlertRule rule, PovertyCounty county) {
-        int N = (rule.getDurationYears()==null || rule.getDurationYears()<=0) ? 1 : rule.getDurationYears();
-        List<EconomicIndicator> list = indicatorRepo.findByCounty_OrderByYearAsc(county);
-        if (list == null || list.size() == 0) return;
-        int size = list.size();
-        if (size < N) return;
-        boolean allMatch = true;
-        for (int i = size - N; i < size; i++) {
-            EconomicIndicator e = list.get(i);
-            Double metricVal = extractMetric(e, rule.getMetricKey());
-            if (metricVal == null) {
-                allMatch = false; break;
+    private void queueFullScan() {
+        fullScanQueued.set(true);
+        log.info("Alert scan (FULL) queued: another scan is still running");
+        // 正在运行的扫描可能在置位之前就已结束，这种情况由当前线程补跑
+        if (!scanMonitor.isRunning()) {
+            runQueuedFullScan();
+        }
+    }
+
+    private void runQueuedFullScan() {
+        if (fullScanQueued.compareAndSet(true, false)) {
+            try {
+                runScan(ScanMode.FULL);
+            } catch (RuntimeException ex) {
+                // 失败已记录在扫描状态和日志中，不影响触发它的扫描
             }
-            if (!applyComparator(metricVal, rule.getComparator(), rule.getThreshold())) {
-                allMatch = false; break;
+        }
+    }
+
+    /**
+     * A changed rule is re-evaluated against every county; the remaining rules only against the changed
+     * counties, so no pair is evaluated twice.
+     */
+    private List<Partition> incrementalPartitions(List<CompiledRule> rules, AlertChangeTracker.Changes changes) {
+        List<CompiledRule> changedRules = rules.stream()
+                .filter(rule -> changes.ruleIds().contains(rule.rule().getRuleId()))
+                .toList();
+        List<CompiledRule> otherRules = rules.stream()
+                .filter(rule -> !changes.ruleIds().contains(rule.rule().getRuleId()))
+                .toList();
+        List<Partition> partitions = new ArrayList<>(rangePartitions(changedRules, 0));
+        partitions.addAll(countyPartitions(otherRules, changes.countyIds(), partitions.size()));
+        return partitions;
+    }
+
+    /**
+     * Splits the counties known to the column store into contiguous id ranges of about equal size, two
+     * per core. The outer bounds are open so counties created after the store was loaded are still
+     * scanned.
+     */
+    private List<Partition> rangePartitions(List<CompiledRule> rules, int firstIndex) {
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+        IndicatorColumnStore.Snapshot snapshot = indicatorStore.snapshot();
+        long[] countyIds = new long[snapshot.size()];
+        for (int i = 0; i < countyIds.length; i++) {
+            countyIds[i] = snapshot.countyId(i);
+        }
+        Arrays.sort(countyIds);
+        int count = Math.max(1, Math.min(countyIds.length, Runtime.getRuntime().availableProcessors() * 2));
+        List<Partition> partitions = new ArrayList<>(count);
+        for (int p = 0; p < count; p++) {
+            int from = (int) ((long) countyIds.length * p / count);
+            int to = (int) ((long) countyIds.length * (p + 1) / count);
+            long first = p == 0 ? Long.MIN_VALUE : countyIds[from];
+            long last = p == count - 1 ? Long.MAX_VALUE : countyIds[to] - 1;
+            partitions.add(new Partition(firstIndex + p, first, last, null, to - from, rules));
+        }
+        return partitions;
+    }
+
+    // 变更县按 id 排序后切块，每块一条 IN 查询
+    private List<Partition> countyPartitions(List<CompiledRule> rules, Collection<Long> changedCounties,
+                                             int firstIndex) {
+        if (rules.isEmpty() || changedCounties.isEmpty()) {
+            return List.of();
+        }
+        List<Long> countyIds = changedCounties.stream().sorted().toList();
+        int count = Math.max(Math.min(countyIds.size(), Runtime.getRuntime().availableProcessors() * 2),
+                (countyIds.size() + MAX_COUNTIES_PER_QUERY - 1) / MAX_COUNTIES_PER_QUERY);
+        List<Partition> partitions = new ArrayList<>(count);
+        for (int p = 0; p < count; p++) {
+            List<Long> chunk = countyIds.subList(countyIds.size() * p / count, countyIds.size() * (p + 1) / count);
+            partitions.add(new Partition(firstIndex + p, chunk.get(0), chunk.get(chunk.size() - 1),
+                    List.copyOf(chunk), chunk.size(), rules));
+        }
+        return partitions;
+    }
+
+    private AlertScanMonitor.EventCounts scanPartitions(List<Partition> partitions) {
+        if (partitions.isEmpty()) {
+            return AlertScanMonitor.EventCounts.NONE;
+        }
+        scanMonitor.startPartitions(partitions.stream()
+                .map(p -> AlertScanMonitor.PartitionStatus.pending(p.index(), p.firstCountyId(),
+                        p.lastCountyId(), p.counties()))
+                .toList());
+        LocalDateTime triggeredAt = LocalDateTime.now();
+        List<CompletableFuture<AlertScanMonitor.EventCounts>> futures = partitions.stream()
+                .map(partition -> CompletableFuture.supplyAsync(
+                        () -> scanPartition(partition, triggeredAt), partitionExecutor))
+                .toList();
+        try {
+            // 等全部分区结束再汇总，失败分区不影响其余分区已提交的结果
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .reduce(AlertScanMonitor.EventCounts.NONE, AlertScanMonitor.EventCounts::plus);
+    }
+
+    /**
+     * Walks one partition's indicator rows once, ordered by (county, year); each county's history is
+     * buffered and every rule is evaluated against it before moving on. The matches are then compared
+     * with the partition's stored events and written in JDBC batches.
+     */
+    private AlertScanMonitor.EventCounts scanPartition(Partition partition, LocalDateTime triggeredAt) {
+        scanMonitor.partitionStarted(partition.index());
+        long start = System.currentTimeMillis();
+        int[] counties = new int[1];
+        try {
+            AlertScanMonitor.EventCounts counts = transactionTemplate.execute(status -> {
+                List<Match> matches = new ArrayList<>();
+                List<Integer> years = new ArrayList<>();
+                List<double[]> values = new ArrayList<>();
+                Long currentCounty = null;
+
+                try (Stream<EconomicIndicatorRepository.IndicatorValues> rows = partition.countyIds() != null
+                        ? indicatorRepo.streamValuesForCountiesOrderByCountyAndYear(partition.countyIds())
+                        : indicatorRepo.streamValuesOrderByCountyAndYear(partition.firstCountyId(),
+                                partition.lastCountyId())) {
+                    Iterator<EconomicIndicatorRepository.IndicatorValues> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        EconomicIndicatorRepository.IndicatorValues row = iterator.next();
+                        if (!row.getCountyId().equals(currentCounty)) {
+                            if (currentCounty != null) {
+                                evaluateCounty(currentCounty, years, values, partition.rules(), matches);
+                                if (++counties[0] % PROGRESS_INTERVAL == 0) {
+                                    scanMonitor.partitionProgress(partition.index(), counties[0]);
+                                }
+                            }
+                            currentCounty = row.getCountyId();
+                            years.clear();
+                            values.clear();
+                        }
+                        years.add(row.getYear());
+                        values.add(IndicatorColumnStore.valuesOf(row));
+                    }
+                }
+                if (currentCounty != null) {
+                    evaluateCounty(currentCounty, years, values, partition.rules(), matches);
+                    counties[0]++;
+                }
+                return writeEvents(partition, matches, triggeredAt);
+            });
+            AlertScanMonitor.EventCounts result = counts != null ? counts : AlertScanMonitor.EventCounts.NONE;
+            scanMonitor.partitionCompleted(partition.index(), counties[0], result,
+                    System.currentTimeMillis() - start);
+            return result;
+        } catch (RuntimeException ex) {
+            scanMonitor.partitionFailed(partition.index(), ex.getMessage());
+            log.error("Alert scan partition {} (counties {}..{}) failed",
+                    partition.index(), partition.firstCountyId(), partition.lastCountyId(), ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Inserts matches with a new (rule, county, year), refreshes the value and trigger time of stored
+     * events whose value changed and leaves the rest (including their acknowledgement) untouched. Stored
+     * events of the partition's pairs that no longer match are deleted unless someone acknowledged them.
+     */
+    private AlertScanMonitor.EventCounts writeEvents(Partition partition, List<Match> matches,
+                                                     LocalDateTime triggeredAt) {
+        Map<EventKey, StoredEvent> stored = storedEvents(partition);
+        List<Match> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        Timestamp triggered = Timestamp.valueOf(triggeredAt);
+        int unchanged = 0;
+        for (Match match : matches) {
+            StoredEvent existing = stored.remove(match.key());
+            if (existing == null) {
+                inserts.add(match);
+            } else if (Double.compare(existing.metricValue(), match.metricValue()) != 0) {
+                updates.add(new Object[]{match.metricValue(), triggered, existing.eventId()});
+            } else {
+                unchanged++;
             }
         }
-        if (allMatch) {
-            EconomicIndicator last = list.get(size-1);
-            AlertEvent ev = AlertEvent.builder()
-                    .rule(rule)
-                    .county(county)
-                    .year(last.getYear())
-                    .metricValue(extractMetric(last, rule.getMetricKey()))
-                    .triggeredAt(LocalDateTime.now())
-                    .build();
-            eventRepo.save(ev);
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_EVENT_SQL, inserts, WRITE_BATCH_SIZE, (ps, match) -> {
+                ps.setLong(1, match.key().ruleId());
+                ps.setLong(2, match.key().countyId());
+                ps.setInt(3, match.key().year());
+                ps.setDouble(4, match.metricValue());
+                ps.setTimestamp(5, triggered);
+            });
         }
+        for (int from = 0; from < updates.size(); from += WRITE_BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(UPDATE_EVENT_SQL,
+                    updates.subList(from, Math.min(from + WRITE_BATCH_SIZE, updates.size())));
+        }
+        // 剩下的已存事件本次没有命中，条件已不再成立
+        List<Object[]> stale = stored.values().stream()
+                .filter(event -> !event.acknowledged())
+                .map(event -> new Object[]{event.eventId()})
+                .toList();
+        int removed = 0;
+        for (int from = 0; from < stale.size(); from += WRITE_BATCH_SIZE) {
+            for (int rows : jdbcTemplate.batchUpdate(DELETE_EVENT_SQL,
+                    stale.subList(from, Math.min(from + WRITE_BATCH_SIZE, stale.size())))) {
+                removed += Math.max(rows, 0);
+            }
+        }
+        return new AlertScanMonitor.EventCounts(inserts.size(), updates.size(), unchanged, removed);
+    }
+
+    // 只取本分区县与本分区规则的已有事件
+    private Map<EventKey, StoredEvent> storedEvents(Partition partition) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ruleIds",
+                partition.rules().stream().map(rule -> rule.rule().getRuleId()).toList());
+        String countyCondition;
+        if (partition.countyIds() != null) {
+            countyCondition = "county_id in (:countyIds)";
+            params.addValue("countyIds", partition.countyIds());
+        } else {
+            countyCondition = "county_id between :fromCountyId and :toCountyId";
+            params.addValue("fromCountyId", partition.firstCountyId());
+            params.addValue("toCountyId", partition.lastCountyId());
+        }
+        Map<EventKey, StoredEvent> stored = new HashMap<>();
+        namedJdbcTemplate.query("select event_id, rule_id, county_id, year, metric_value, acknowledged_by " +
+                "from alert_event where " + countyCondition + " and rule_id in (:ruleIds) and year is not null",
+                params, rs -> {
+            double value = rs.getDouble(5);
+            boolean missingValue = rs.wasNull();
+            rs.getLong(6);
+            stored.put(new EventKey(rs.getLong(2), rs.getLong(3), rs.getInt(4)),
+                    new StoredEvent(rs.getLong(1), missingValue ? Double.NaN : value, !rs.wasNull()));
+        });
+        return stored;
     }
 
-    private Double extractMetric(EconomicIndicator e, String metricKey) {
-        if (metricKey == null) return null;
-        switch (metricKey) {
-            case "gdpYoy": return e.getGdpYoy();
-            case "ruralDisposableIncome": return e.getRuralDisposableIncome();
-            case "fiscalRevenueYoy": return e.getFiscalRevenueYoy();
-            case "gdp": return e.getGdp();
-            default: return null;
+    // 规则要求最近 N 年全部满足条件，触发年份为该县最新一年
+    private void evaluateCounty(Long countyId, List<Integer> years, List<double[]> values,
+                                List<CompiledRule> rules, List<Match> matches) {
+        int size = values.size();
+        for (CompiledRule rule : rules) {
+            if (size < rule.durationYears()) {
+                continue;
+            }
+            boolean allMatch = true;
+            for (int i = size - rule.durationYears(); i < size; i++) {
+                if (!rule.matches(values.get(i)[rule.metric().ordinal()])) {
+                    allMatch = false;
+                    break;
+                }
+            }
+            if (allMatch) {
+                matches.add(new Match(new EventKey(rule.rule().getRuleId(), countyId, years.get(size - 1)),
+                        values.get(size - 1)[rule.metric().ordinal()]));
+            }
         }
     }
 
-    private boolean applyComparator(Double val, String comp, Double threshold) {
-        if (val == null || comp == null || threshold == null) return false;
-        switch (comp) {
-            case "lt": return val < threshold;
-            case "lte": return val <= threshold;
-            case "gt": return val > threshold;
-            case "gte": return val >= threshold;
-            default: return false;
+    private record EventKey(long ruleId, long countyId, int year) {}
+
+    private record Match(EventKey key, double metricValue) {}
+
+    private record StoredEvent(long eventId, double metricValue, boolean acknowledged) {}
+
+    /**
+     * Counties with ids in [{@code firstCountyId}, {@code lastCountyId}], or only {@code countyIds} when
+     * set, evaluated against {@code rules}. {@code counties} is how many the scan expects to visit.
+     */
+    private record Partition(int index, long firstCountyId, long lastCountyId, List<Long> countyIds,
+                             int counties, List<CompiledRule> rules) {}
+
+    /**
+     * An enabled rule with its metric resolved once per scan; rules with an unknown metric, comparator
+     * or missing threshold never match and are skipped.
+     */
+    private record CompiledRule(AlertRule rule, Metric metric, String comparator, double threshold,
+                                int durationYears) {
+
+        static Optional<CompiledRule> compile(AlertRule rule) {
+            if (rule.getComparator() == null || rule.getThreshold() == null
+                    || !COMPARATORS.contains(rule.getComparator())) {
+                return Optional.empty();
+            }
+            int duration = rule.getDurationYears() == null || rule.getDurationYears() <= 0
+                    ? 1
+                    : rule.getDurationYears();
+            return Metric.fromKey(rule.getMetricKey())
+                    .map(metric -> new CompiledRule(rule, metric, rule.getComparator(), rule.getThreshold(), duration));
+        }
+
+        boolean matches(double value) {
+            if (Double.isNaN(value)) {
+                return false;
+            }
+            return switch (comparator) {
+                case "lt" -> value < threshold;
+                case "lte" -> value <= threshold;
+                case "gt" -> value > threshold;
+                case "gte" -> value >= threshold;
+                default -> false;
+            };
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package com.example.poverty.service;
+
+import com.example.poverty.service.IndicatorColumnStore.Metric;
+import com.example.poverty.service.IndicatorColumnStore.Snapshot;
+import com.example.poverty.service.IndicatorColumnStore.YearColumns;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-request state shared by the analysis builders. It pins one store snapshot, resolves every year the
+ * request needs (trend range, baseline and target) once, and memoises per-year averages so that
+ * yearComparison, trendSeries and policyEffect do not each recompute them.
+ * <p>
+ * A context may be scoped to one province: builders then only visit that province's county ordinals,
+ * so a province view costs a fraction of the national one.
+ * <p>
+ * Outside this package the context is an opaque handle: the dashboard controller resolves it once per
+ * request through {@link DashboardService#analysisContext} and passes it back for both the sections and
+ * the streamed arrays.
+ */
+public final class AnalysisContext {
+
+    private final Snapshot snapshot;
+    private final int[] ordinals;
+    private final String province;
+    private final int targetYear;
+    private final int baselineYear;
+    private final List<Integer> years;
+    private final Map<Integer, YearColumns> columnsByYear;
+    private final Map<Integer, Double> averages = new ConcurrentHashMap<>();
+
+    private AnalysisContext(Snapshot snapshot, int[] ordinals, String province, int targetYear, int baselineYear,
+                            List<Integer> years, Map<Integer, YearColumns> columnsByYear) {
+        this.snapshot = snapshot;
+        this.ordinals = ordinals;
+        this.province = province;
+        this.targetYear = targetYear;
+        this.baselineYear = baselineYear;
+        this.years = years;
+        this.columnsByYear = columnsByYear;
+    }
+
+    /**
+     * @param province province name to scope to, or {@code null} for the national view
+     */
+    static AnalysisContext load(Snapshot snapshot, int targetYear, String province) {
+        int[] ordinals = province != null ? snapshot.provinceOrdinals(province) : snapshot.allOrdinals();
+        List<Integer> years = yearRange(targetYear);
+        int baselineYear = Math.max(2018, targetYear - 3);
+
+        Set<Integer> required = new TreeSet<>(years);
+        required.add(baselineYear);
+        required.add(targetYear);
+        Map<Integer, YearColumns> columnsByYear = new HashMap<>();
+        for (Integer year : required) {
+            columnsByYear.put(year, snapshot.year(year));
+        }
+        return new AnalysisContext(snapshot, ordinals, province, targetYear, baselineYear,
+                Collections.unmodifiableList(years), columnsByYear);
+    }
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * County ordinals in scope, ascending. Callers must not modify the array.
+     */
+    int[] ordinals() {
+        return ordinals;
+    }
+
+    String province() {
+        return province;
+    }
+
+    int targetYear() {
+        return targetYear;
+    }
+
+    int baselineYear() {
+        return baselineYear;
+    }
+
+    List<Integer> years() {
+        return years;
+    }
+
+    YearColumns current() {
+        return columns(targetYear);
+    }
+
+    YearColumns columns(int year) {
+        YearColumns columns = columnsByYear.get(year);
+        if (columns == null) {
+            throw new IllegalArgumentException("Year " + year + " is outside the analysis range");
+        }
+        return columns;
+    }
+
+    /**
+     * Mean of the non-missing values of a metric in one year, 0 when there are none.
+     */
+    double average(int year, Metric metric) {
+        int key = year * Metric.values().length + metric.ordinal();
+        return averages.computeIfAbsent(key, k -> computeAverage(columns(year), metric));
+    }
+
+    private double computeAverage(YearColumns columns, Metric metric) {
+        double[] column = columns.column(metric);
+        double total = 0;
+        int count = 0;
+        for (int i : ordinals) {
+            if (columns.has(i) && !Double.isNaN(column[i])) {
+                total += column[i];
+                count++;
+            }
+        }
+        return count > 0 ? total / count : 0;
+    }
+
+    private static List<Integer> yearRange(int targetYear) {
+        int end = Math.max(targetYear, 2019);
+        int start = Math.max(2018, end - 4);
+        List<Integer> years = new ArrayList<>();
+        for (int y = start; y <= end; y++) {
+            years.add(y);
+        }
+        return years;
+    }
+}
@@ -0,0 +1,499 @@
+package com.example.poverty.service;
+
+import com.example.poverty.service.IndicatorColumnStore.Snapshot;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Bulk writes for indicators and projects. Rows are written with plain JDBC batches of {@link #BATCH_SIZE}
+ * (rewritten into multi-row INSERTs by the MySQL driver), bypassing Hibernate, whose IDENTITY ids would
+ * force one INSERT round trip per entity. Indicators are upserted on (county_id, year).
+ * <p>
+ * Imports read CSV (header row with field names) or NDJSON (one object per line) as a stream, so the
+ * upload is never held in memory; each batch commits on its own and progress is published to the
+ * {@link ImportMonitor}. A failure rolls back only the current batch: the earlier ones stay committed and
+ * the failed import status reports how many rows they hold.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    public static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private static final String UPSERT_INDICATOR_SQL =
+            "insert into economic_indicator (county_id, year, gdp, gdp_yoy, gdp_per_capita, " +
+            "rural_disposable_income, rural_income_yoy, fiscal_revenue, fiscal_revenue_yoy, poverty_rate) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "on duplicate key update gdp = values(gdp), gdp_yoy = values(gdp_yoy), " +
+            "gdp_per_capita = values(gdp_per_capita), rural_disposable_income = values(rural_disposable_income), " +
+            "rural_income_yoy = values(rural_income_yoy), fiscal_revenue = values(fiscal_revenue), " +
+            "fiscal_revenue_yoy = values(fiscal_revenue_yoy), poverty_rate = values(poverty_rate)";
+
+    private static final String INSERT_PROJECT_SQL =
+            "insert into county_project (county_id, project_name, category, investment, beneficiaries, status, " +
+            "progress, start_year, end_year, lead_unit, description, impact_score) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        public static Format fromContentType(String contentType) {
+            return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json") ? NDJSON : CSV;
+        }
+    }
+
+    public record IndicatorRow(
+            long countyId,
+            int year,
+            Double gdp,
+            Double gdpYoy,
+            Double gdpPerCapita,
+            Double ruralDisposableIncome,
+            Double ruralIncomeYoy,
+            Double fiscalRevenue,
+            Double fiscalRevenueYoy,
+            Double povertyRate
+    ) {}
+
+    public record ProjectRow(
+            long countyId,
+            String projectName,
+            String category,
+            Double investment,
+            Integer beneficiaries,
+            String status,
+            Integer progress,
+            Integer startYear,
+            Integer endYear,
+            String leadUnit,
+            String description,
+            Double impactScore
+    ) {}
+
+    /**
+     * @param errors the first rejected rows with their line numbers
+     */
+    public record ImportResult(
+            String kind,
+            long rowsRead,
+            long rowsWritten,
+            long rowsRejected,
+            List<String> errors,
+            long durationMs
+    ) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IndicatorColumnStore indicatorStore;
+    private final DataVersion dataVersion;
+    private final ImportMonitor importMonitor;
+    private final ObjectMapper objectMapper;
+    private final ProjectRollupService rollupService;
+    private final AlertChangeTracker changeTracker;
+
+    public BulkImportService(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             IndicatorColumnStore indicatorStore,
+                             DataVersion dataVersion,
+                             ImportMonitor importMonitor,
+                             ObjectMapper objectMapper,
+                             ProjectRollupService rollupService,
+                             AlertChangeTracker changeTracker) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.indicatorStore = indicatorStore;
+        this.dataVersion = dataVersion;
+        this.importMonitor = importMonitor;
+        this.objectMapper = objectMapper;
+        this.rollupService = rollupService;
+        this.changeTracker = changeTracker;
+    }
+
+    /**
+     * Streams indicator rows from {@code in} and upserts them; the column store is reloaded afterwards.
+     *
+     * @throws IllegalStateException when another import is running
+     */
+    public ImportResult importIndicators(InputStream in, Format format) throws IOException {
+        return runImport("indicators", in, format, this::toIndicatorRow, this::upsertIndicators,
+                indicatorStore::reload);
+    }
+
+    /**
+     * Streams project rows from {@code in} and appends them, together with their rollup deltas.
+     *
+     * @throws IllegalStateException when another import is running
+     */
+    public ImportResult importProjects(InputStream in, Format format) throws IOException {
+        return runImport("projects", in, format, this::toProjectRow, this::insertProjects,
+                dataVersion::bumpAll);
+    }
+
+    public void upsertIndicators(List<IndicatorRow> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<IndicatorRow> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            jdbcTemplate.batchUpdate(UPSERT_INDICATOR_SQL, chunk, chunk.size(), (ps, row) -> {
+                ps.setLong(1, row.countyId());
+                ps.setInt(2, row.year());
+                ps.setObject(3, row.gdp());
+                ps.setObject(4, row.gdpYoy());
+                ps.setObject(5, row.gdpPerCapita());
+                ps.setObject(6, row.ruralDisposableIncome());
+                ps.setObject(7, row.ruralIncomeYoy());
+                ps.setObject(8, row.fiscalRevenue());
+                ps.setObject(9, row.fiscalRevenueYoy());
+                ps.setObject(10, row.povertyRate());
+            });
+            changeTracker.countiesChanged(chunk.stream().map(IndicatorRow::countyId).toList());
+        }
+    }
+
+    public void insertProjects(List<ProjectRow> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<ProjectRow> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            jdbcTemplate.batchUpdate(INSERT_PROJECT_SQL, chunk, chunk.size(), (ps, row) -> {
+                ps.setLong(1, row.countyId());
+                ps.setString(2, row.projectName());
+                ps.setString(3, row.category());
+                ps.setObject(4, row.investment());
+                ps.setObject(5, row.beneficiaries());
+                ps.setString(6, row.status());
+                ps.setObject(7, row.progress());
+                ps.setObject(8, row.startYear());
+                ps.setObject(9, row.endYear());
+                ps.setString(10, row.leadUnit());
+                ps.setString(11, row.description());
+                ps.setObject(12, row.impactScore());
+            });
+            // 汇总表与县总投资随同一批次更新
+            rollupService.apply(chunk.stream()
+                    .map(row -> ProjectRollupService.Delta.of(row.countyId(), row.category(), row.status(),
+                            row.investment(), row.beneficiaries(), 1))
+                    .toList());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowParser<T> {
+        T parse(Map<String, String> record, Snapshot snapshot);
+    }
+
+    private <T> ImportResult runImport(String kind, InputStream in, Format format, RowParser<T> parser,
+                                       Consumer<List<T>> writer, Runnable afterImport) throws IOException {
+        if (!importMonitor.tryStart(kind)) {
+            throw new IllegalStateException("已有导入任务正在执行");
+        }
+        long start = System.currentTimeMillis();
+        // 仅用于校验县是否存在
+        Snapshot snapshot = indicatorStore.snapshot();
+        long read = 0;
+        long written = 0;
+        long rejected = 0;
+        List<String> errors = new ArrayList<>();
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+
+        try (RecordReader reader = format == Format.NDJSON ? new NdjsonReader(in) : new CsvReader(in)) {
+            Map<String, String> record;
+            while ((record = reader.next()) != null) {
+                read++;
+                try {
+                    batch.add(parser.parse(record, snapshot));
+                } catch (IllegalArgumentException ex) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("第" + reader.line() + "行: " + ex.getMessage());
+                    }
+                }
+                if (batch.size() >= BATCH_SIZE) {
+                    written += writeBatch(batch, writer);
+                    importMonitor.progress(read, written, rejected);
+                }
+            }
+            written += writeBatch(batch, writer);
+        } catch (IOException | RuntimeException ex) {
+            // 失败批次已回滚，之前的批次已提交；在状态中如实报告已写入的行数
+            importMonitor.markFailed("导入中断，已提交 " + written + " 行，其后的行未写入: " + ex.getMessage(),
+                    read, written, rejected);
+            if (written > 0) {
+                // 已提交的批次仍需对外可见
+                afterImport.run();
+            }
+            throw ex;
+        }
+
+        afterImport.run();
+        importMonitor.markCompleted(read, written, rejected);
+        long duration = System.currentTimeMillis() - start;
+        log.info("Imported {}: {} read, {} written, {} rejected in {} ms", kind, read, written, rejected, duration);
+        return new ImportResult(kind, read, written, rejected, errors, duration);
+    }
+
+    // 每批单独提交
+    private <T> int writeBatch(List<T> batch, Consumer<List<T>> writer) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int size = batch.size();
+        transactionTemplate.executeWithoutResult(status -> writer.accept(batch));
+        batch.clear();
+        return size;
+    }
+
+    private IndicatorRow toIndicatorRow(Map<String, String> record, Snapshot snapshot) {
+        long countyId = requireCounty(record, snapshot);
+        int year = requireInt(record, "year");
+        if (year < 1949 || year > 2100) {
+            throw new IllegalArgumentException("年份超出范围: " + year);
+        }
+        return new IndicatorRow(
+                countyId,
+                year,
+                optionalDouble(record, "gdp"),
+                optionalDouble(record, "gdpyoy"),
+                optionalDouble(record, "gdppercapita"),
+                optionalDouble(record, "ruraldisposableincome"),
+                optionalDouble(record, "ruralincomeyoy"),
+                optionalDouble(record, "fiscalrevenue"),
+                optionalDouble(record, "fiscalrevenueyoy"),
+                optionalDouble(record, "povertyrate"));
+    }
+
+    private ProjectRow toProjectRow(Map<String, String> record, Snapshot snapshot) {
+        long countyId = requireCounty(record, snapshot);
+        String projectName = record.get("projectname");
+        if (!StringUtils.hasText(projectName)) {
+            throw new IllegalArgumentException("项目名称必填");
+        }
+        Integer progress = optionalInt(record, "progress");
+        if (progress != null && (progress < 0 || progress > 100)) {
+            throw new IllegalArgumentException("项目进度需在0-100之间");
+        }
+        return new ProjectRow(
+                countyId,
+                projectName.trim(),
+                optionalText(record, "category"),
+                optionalDouble(record, "investment"),
+                optionalInt(record, "beneficiaries"),
+                optionalText(record, "status"),
+                progress,
+                optionalInt(record, "startyear"),
+                optionalInt(record, "endyear"),
+                optionalText(record, "leadunit"),
+                optionalText(record, "description"),
+                optionalDouble(record, "impactscore"));
+    }
+
+    private long requireCounty(Map<String, String> record, Snapshot snapshot) {
+        String value = record.get("countyid");
+        if (!StringUtils.hasText(value)) {
+            throw new IllegalArgumentException("countyId必填");
+        }
+        long countyId;
+        try {
+            countyId = Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("countyId格式错误: " + value);
+        }
+        if (snapshot.ordinalOf(countyId) < 0) {
+            throw new IllegalArgumentException("县不存在: " + countyId);
+        }
+        return countyId;
+    }
+
+    private int requireInt(Map<String, String> record, String key) {
+        Integer value = optionalInt(record, key);
+        if (value == null) {
+            throw new IllegalArgumentException(key + "必填");
+        }
+        return value;
+    }
+
+    private Integer optionalInt(Map<String, String> record, String key) {
+        String value = record.get(key);
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        // 允许 "2020.0" 这类整数值，小数或超出 int 范围的值按行报错而不是截断
+        try {
+            return new BigDecimal(value.trim()).intValueExact();
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(key + "格式错误: " + value);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException(key + "需为整数: " + value);
+        }
+    }
+
+    private Double optionalDouble(Map<String, String> record, String key) {
+        String value = record.get(key);
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(key + "格式错误: " + value);
+        }
+    }
+
+    private String optionalText(Map<String, String> record, String key) {
+        String value = record.get(key);
+        return StringUtils.hasText(value) ? value.trim() : null;
+    }
+
+    // 字段名统一为小写并去掉分隔符，countyId / county_id / COUNTY-ID 视为同一列
+    private static String normalizeKey(String key) {
+        StringBuilder normalized = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c != '_' && c != '-' && c != ' ' && c != '\uFEFF') {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private interface RecordReader extends Closeable {
+        /**
+         * Next record keyed by normalised field name, or {@code null} at the end of input.
+         */
+        Map<String, String> next() throws IOException;
+
+        long line();
+    }
+
+    private static final class CsvReader implements RecordReader {
+        private final BufferedReader reader;
+        private final List<String> header;
+        private long line = 1;
+
+        CsvReader(InputStream in) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String first = reader.readLine();
+            if (first == null) {
+                throw new IOException("CSV缺少表头");
+            }
+            List<String> names = new ArrayList<>();
+            for (String name : splitLine(first)) {
+                names.add(normalizeKey(name));
+            }
+            this.header = names;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                line++;
+            } while (text.isBlank());
+            List<String> fields = splitLine(text);
+            Map<String, String> record = new HashMap<>(header.size() * 2);
+            for (int i = 0; i < header.size() && i < fields.size(); i++) {
+                record.put(header.get(i), fields.get(i));
+            }
+            return record;
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        // 支持双引号包裹的字段及 "" 转义，不支持跨行字段
+        private static List<String> splitLine(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+
+    private final class NdjsonReader implements RecordReader {
+        private final JsonParser parser;
+
+        NdjsonReader(InputStream in) throws IOException {
+            this.parser = objectMapper.getFactory().createParser(in);
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new IOException("第" + line() + "行不是JSON对象");
+            }
+            Map<String, String> record = new HashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = normalizeKey(parser.getCurrentName());
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                } else if (value != JsonToken.VALUE_NULL) {
+                    record.put(key, parser.getText());
+                }
+            }
+            return record;
+        }
+
+        @Override
+        public long line() {
+            return parser.getCurrentLocation().getLineNr();
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
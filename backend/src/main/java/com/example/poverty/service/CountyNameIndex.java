@@ -0,0 +1,259 @@
+package com.example.poverty.service;
+
+import java.util.*;
+
+/**
+ * Immutable inverted index over county names. Every name is split into its single characters and
+ * bigrams; a keyword is answered by intersecting the posting lists of its own bigrams (or of the single
+ * character) and confirming the substring match on the few survivors, instead of a {@code LIKE '%kw%'} scan.
+ * Posting lists hold county ordinals in ascending order, so a province filter is one more intersection
+ * with that province's posting list.
+ * <p>
+ * Each {@link IndicatorColumnStore.Snapshot} carries an index; an edited county produces a copy in which
+ * only that county's postings change.
+ */
+public final class CountyNameIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] names;
+    private final long[] provinceIds;
+    private final Map<String, int[]> postings;
+    private final Map<Long, int[]> provincePostings;
+
+    private CountyNameIndex(String[] names, long[] provinceIds,
+                            Map<String, int[]> postings, Map<Long, int[]> provincePostings) {
+        this.names = names;
+        this.provinceIds = provinceIds;
+        this.postings = postings;
+        this.provincePostings = provincePostings;
+    }
+
+    static CountyNameIndex build(String[] countyNames, long[] provinceIds) {
+        int size = countyNames.length;
+        String[] names = new String[size];
+        Map<String, List<Integer>> grouped = new HashMap<>();
+        Map<Long, List<Integer>> byProvince = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            names[i] = normalize(countyNames[i]);
+            for (String gram : grams(names[i])) {
+                grouped.computeIfAbsent(gram, k -> new ArrayList<>()).add(i);
+            }
+            if (provinceIds[i] != 0L) {
+                byProvince.computeIfAbsent(provinceIds[i], k -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((gram, list) -> postings.put(gram, toArray(list)));
+        Map<Long, int[]> provincePostings = new HashMap<>();
+        byProvince.forEach((id, list) -> provincePostings.put(id, toArray(list)));
+        return new CountyNameIndex(names, provinceIds.clone(), postings, provincePostings);
+    }
+
+    /**
+     * Copy of this index with one county's name and province replaced.
+     */
+    CountyNameIndex withCounty(int ordinal, String countyName, long provinceId) {
+        String[] nextNames = names.clone();
+        long[] nextProvinceIds = provinceIds.clone();
+        Map<String, int[]> nextPostings = new HashMap<>(postings);
+        Map<Long, int[]> nextProvincePostings = new HashMap<>(provincePostings);
+
+        String name = normalize(countyName);
+        if (!Objects.equals(names[ordinal], name)) {
+            Set<String> before = grams(names[ordinal]);
+            Set<String> after = grams(name);
+            for (String gram : before) {
+                if (!after.contains(gram)) {
+                    int[] remaining = remove(nextPostings.getOrDefault(gram, EMPTY), ordinal);
+                    if (remaining.length == 0) {
+                        nextPostings.remove(gram);
+                    } else {
+                        nextPostings.put(gram, remaining);
+                    }
+                }
+            }
+            for (String gram : after) {
+                if (!before.contains(gram)) {
+                    nextPostings.put(gram, insert(nextPostings.getOrDefault(gram, EMPTY), ordinal));
+                }
+            }
+            nextNames[ordinal] = name;
+        }
+        if (provinceIds[ordinal] != provinceId) {
+            if (provinceIds[ordinal] != 0L) {
+                nextProvincePostings.put(provinceIds[ordinal],
+                        remove(nextProvincePostings.getOrDefault(provinceIds[ordinal], EMPTY), ordinal));
+            }
+            if (provinceId != 0L) {
+                nextProvincePostings.put(provinceId,
+                        insert(nextProvincePostings.getOrDefault(provinceId, EMPTY), ordinal));
+            }
+            nextProvinceIds[ordinal] = provinceId;
+        }
+        return new CountyNameIndex(nextNames, nextProvinceIds, nextPostings, nextProvincePostings);
+    }
+
+    /**
+     * Ordinals whose name contains {@code keyword} (case-insensitive) and, when given, that belong to
+     * {@code provinceId}; ascending. A blank keyword matches every county of the province (or all).
+     */
+    public int[] matching(String keyword, Long provinceId) {
+        String needle = normalize(keyword);
+        int[] candidates = provinceId != null ? provincePostings.getOrDefault(provinceId, EMPTY) : null;
+        if (needle.isEmpty()) {
+            return candidates != null ? candidates : allOrdinals();
+        }
+
+        // 以最短的倒排表为起点依次求交
+        List<int[]> lists = new ArrayList<>();
+        for (String gram : queryGrams(needle)) {
+            int[] posting = postings.get(gram);
+            if (posting == null) {
+                return EMPTY;
+            }
+            lists.add(posting);
+        }
+        if (candidates != null) {
+            lists.add(candidates);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        int[] result = lists.get(0);
+        for (int k = 1; k < lists.size() && result.length > 0; k++) {
+            result = intersect(result, lists.get(k));
+        }
+
+        // 二元组全部命中并不保证连续出现，逐条确认子串
+        if (needle.length() <= 2) {
+            return result;
+        }
+        int[] confirmed = new int[result.length];
+        int count = 0;
+        for (int ordinal : result) {
+            if (names[ordinal].contains(needle)) {
+                confirmed[count++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(confirmed, count);
+    }
+
+    /**
+     * Like {@link #matching}, ranked: exact name first, then prefix matches, then shorter names.
+     */
+    public int[] ranked(String keyword, Long provinceId, int limit) {
+        String needle = normalize(keyword);
+        int[] matches = matching(keyword, provinceId);
+        Integer[] ordered = new Integer[matches.length];
+        for (int i = 0; i < matches.length; i++) {
+            ordered[i] = matches[i];
+        }
+        Arrays.sort(ordered, Comparator.<Integer>comparingInt(i -> rank(names[i], needle))
+                .thenComparingInt(i -> names[i].length())
+                .thenComparingInt(i -> i));
+        int count = Math.min(limit, ordered.length);
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = ordered[i];
+        }
+        return result;
+    }
+
+    private int rank(String name, String needle) {
+        if (needle.isEmpty()) {
+            return 2;
+        }
+        if (name.equals(needle)) {
+            return 0;
+        }
+        return name.startsWith(needle) ? 1 : 2;
+    }
+
+    private int[] allOrdinals() {
+        int[] all = new int[names.length];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        return all;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // 名称的全部单字与二元组
+    private static Set<String> grams(String name) {
+        Set<String> grams = new HashSet<>();
+        int[] codePoints = name.codePoints().toArray();
+        for (int i = 0; i < codePoints.length; i++) {
+            grams.add(new String(codePoints, i, 1));
+            if (i + 1 < codePoints.length) {
+                grams.add(new String(codePoints, i, 2));
+            }
+        }
+        return grams;
+    }
+
+    // 查询词：单字直接查单字表，否则取其全部二元组
+    private static Set<String> queryGrams(String needle) {
+        int[] codePoints = needle.codePoints().toArray();
+        if (codePoints.length == 1) {
+            return Set.of(needle);
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            grams.add(new String(codePoints, i, 2));
+        }
+        return grams;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    private static int[] insert(int[] posting, int ordinal) {
+        int position = Arrays.binarySearch(posting, ordinal);
+        if (position >= 0) {
+            return posting;
+        }
+        int at = -position - 1;
+        int[] out = new int[posting.length + 1];
+        System.arraycopy(posting, 0, out, 0, at);
+        out[at] = ordinal;
+        System.arraycopy(posting, at, out, at + 1, posting.length - at);
+        return out;
+    }
+
+    private static int[] remove(int[] posting, int ordinal) {
+        int position = Arrays.binarySearch(posting, ordinal);
+        if (position < 0) {
+            return posting;
+        }
+        int[] out = new int[posting.length - 1];
+        System.arraycopy(posting, 0, out, 0, position);
+        System.arraycopy(posting, position + 1, out, position, posting.length - position - 1);
+        return out;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] out = new int[list.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = list.get(i);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.poverty.service;
+
+import com.example.poverty.service.IndicatorColumnStore.Metric;
+import com.example.poverty.service.IndicatorColumnStore.Snapshot;
+import com.example.poverty.service.IndicatorColumnStore.YearColumns;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Filters, sorts and pages counties against the {@link IndicatorColumnStore} snapshot, so a list request
+ * only loads the entities of the page it returns and the total count costs nothing extra.
+ * <p>
+ * Sorting by countyId supports keyset paging: the cursor is the last countyId of the previous page.
+ * Other sorts (county name, an indicator column of one year) page by offset.
+ */
+@Service
+public class CountySearchService {
+
+    private final IndicatorColumnStore indicatorStore;
+
+    public CountySearchService(IndicatorColumnStore indicatorStore) {
+        this.indicatorStore = indicatorStore;
+    }
+
+    /**
+     * @param sortMetric  indicator column to sort by, or {@code null} to sort by countyId (or name)
+     * @param sortByName  sort by county name; ignored when {@code sortMetric} is set
+     * @param cursor      keyset cursor, only honoured when sorting by countyId
+     */
+    public record Criteria(
+            Long provinceId,
+            String keyword,
+            Metric sortMetric,
+            boolean sortByName,
+            boolean descending,
+            int year,
+            Long cursor,
+            int page,
+            int size
+    ) {
+        boolean sortById() {
+            return sortMetric == null && !sortByName;
+        }
+    }
+
+    /**
+     * @param countyIds  ids of the requested page, in result order
+     * @param nextCursor countyId to pass as the next cursor, {@code null} on the last page or for offset sorts
+     */
+    public record Result(List<Long> countyIds, long total, Long nextCursor) {}
+
+    public Result search(Criteria criteria) {
+        Snapshot snapshot = indicatorStore.snapshot();
+        int[] matches = filter(snapshot, criteria.provinceId(), criteria.keyword());
+        if (criteria.sortById()) {
+            return keysetPage(snapshot, matches, criteria);
+        }
+
+        Integer[] ordered = new Integer[matches.length];
+        for (int i = 0; i < matches.length; i++) {
+            ordered[i] = matches[i];
+        }
+        Arrays.sort(ordered, comparator(snapshot, criteria));
+        int from = Math.min(criteria.page() * criteria.size(), ordered.length);
+        int to = Math.min(from + criteria.size(), ordered.length);
+        List<Long> ids = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ids.add(snapshot.countyId(ordered[i]));
+        }
+        return new Result(ids, matches.length, null);
+    }
+
+    /**
+     * Ordinals of the counties matching the filters, ascending (and therefore in countyId order).
+     */
+    private int[] filter(Snapshot snapshot, Long provinceId, String keyword) {
+        if (provinceId == null && !StringUtils.hasText(keyword)) {
+            return snapshot.allOrdinals();
+        }
+        return snapshot.nameIndex().matching(keyword, provinceId);
+    }
+
+    /**
+     * Ids of the counties whose name contains {@code keyword}, best match first (exact, prefix, shorter name).
+     */
+    public List<Long> searchByName(String keyword, Long provinceId, int limit) {
+        Snapshot snapshot = indicatorStore.snapshot();
+        int[] ranked = snapshot.nameIndex().ranked(keyword, provinceId, limit);
+        List<Long> ids = new ArrayList<>(ranked.length);
+        for (int ordinal : ranked) {
+            ids.add(snapshot.countyId(ordinal));
+        }
+        return ids;
+    }
+
+    private Result keysetPage(Snapshot snapshot, int[] matches, Criteria criteria) {
+        int size = criteria.size();
+        boolean descending = criteria.descending();
+        int start;
+        if (criteria.cursor() != null) {
+            // 匹配结果按 countyId 升序，二分定位游标之后的第一条
+            int position = lowerBound(snapshot, matches, criteria.cursor());
+            if (descending) {
+                start = matches.length - position;
+            } else {
+                boolean exact = position < matches.length && snapshot.countyId(matches[position]) == criteria.cursor();
+                start = exact ? position + 1 : position;
+            }
+        } else {
+            start = Math.min(criteria.page() * size, matches.length);
+        }
+
+        int end = Math.min(start + size, matches.length);
+        List<Long> ids = new ArrayList<>(Math.max(0, end - start));
+        for (int k = start; k < end; k++) {
+            int ordinal = descending ? matches[matches.length - 1 - k] : matches[k];
+            ids.add(snapshot.countyId(ordinal));
+        }
+        Long nextCursor = end < matches.length && !ids.isEmpty() ? ids.get(ids.size() - 1) : null;
+        return new Result(ids, matches.length, nextCursor);
+    }
+
+    // 第一个 countyId >= key 的位置
+    private int lowerBound(Snapshot snapshot, int[] matches, long key) {
+        int low = 0;
+        int high = matches.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (snapshot.countyId(matches[mid]) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Missing values sort last in either direction; ties fall back to countyId.
+     */
+    private Comparator<Integer> comparator(Snapshot snapshot, Criteria criteria) {
+        Comparator<Integer> byId = Comparator.comparingLong(snapshot::countyId);
+        if (criteria.sortMetric() == null) {
+            Comparator<Integer> byName = Comparator.comparing(snapshot::countyName,
+                    Comparator.nullsLast(Comparator.<String>naturalOrder()));
+            return (criteria.descending() ? byName.reversed() : byName).thenComparing(byId);
+        }
+        YearColumns columns = snapshot.year(criteria.year());
+        double[] column = columns.column(criteria.sortMetric());
+        boolean descending = criteria.descending();
+        Comparator<Integer> byValue = (a, b) -> {
+            double x = columns.has(a) ? column[a] : Double.NaN;
+            double y = columns.has(b) ? column[b] : Double.NaN;
+            boolean xMissing = Double.isNaN(x);
+            boolean yMissing = Double.isNaN(y);
+            if (xMissing || yMissing) {
+                return xMissing == yMissing ? 0 : (xMissing ? 1 : -1);
+            }
+            return descending ? Double.compare(y, x) : Double.compare(x, y);
+        };
+        return byValue.thenComparing(byId);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.poverty.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache for dashboard responses, keyed by (endpoint, year, province).
+ * Each entry carries the {@link DataVersion} it was computed under and is only served while that
+ * version is still current. Capacity is measured in estimated weight (number of JSON values) rather
+ * than entry count, so a large analysis payload pushes out several small summaries.
+ */
+@Component
+public class DashboardResultCache {
+
+    public record Key(String endpoint, Integer year, String province) {}
+
+    public record Stats(
+            long hits,
+            long misses,
+            long evictions,
+            int entries,
+            long weight,
+            long maxWeight,
+            double hitRatio
+    ) {}
+
+    private record Entry(long version, Object value, long weight) {}
+
+    private final DataVersion dataVersion;
+    private final long maxWeight;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public DashboardResultCache(DataVersion dataVersion,
+                                @Value("${dashboard.cache.max-weight:200000}") long maxWeight) {
+        this.dataVersion = dataVersion;
+        this.maxWeight = maxWeight;
+    }
+
+    public <T> T get(Key key, Supplier<T> loader) {
+        return get(key, loader, value -> true);
+    }
+
+    /**
+     * Like {@link #get(Key, Supplier)}, but a freshly loaded value is only stored when {@code cacheable}
+     * accepts it, e.g. to keep partial results out of the cache.
+     */
+    public <T> T get(Key key, Supplier<T> loader, Predicate<T> cacheable) {
+        return get(key, dataVersion.current(), loader, cacheable);
+    }
+
+    /**
+     * Like {@link #get(Key, Supplier, Predicate)} for a data version the caller has already read, so that
+     * the value belongs to the same version as the ETag sent with it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, long version, Supplier<T> loader, Predicate<T> cacheable) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version() == version) {
+                hits.increment();
+                return (T) entry.value();
+            }
+            if (entry != null) {
+                // 数据版本已变化，旧结果直接丢弃
+                remove(key);
+            }
+        }
+        misses.increment();
+
+        // 在锁外计算；若计算期间版本再次变化，条目会在下次读取时被视为过期
+        T value = loader.get();
+        if (!cacheable.test(value)) {
+            return value;
+        }
+        long weight = estimateWeight(value);
+        if (weight > maxWeight) {
+            return value;
+        }
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(version, value, weight));
+            if (previous != null) {
+                totalWeight -= previous.weight();
+            }
+            totalWeight += weight;
+            evictIfNeeded();
+        }
+        return value;
+    }
+
+    public synchronized Stats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new Stats(hitCount, missCount, evictions.sum(), entries.size(), totalWeight, maxWeight,
+                lookups > 0 ? Math.round(hitCount * 1000.0 / lookups) / 1000.0 : 0);
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && iterator.hasNext()) {
+            Map.Entry<Key, Entry> eldest = iterator.next();
+            totalWeight -= eldest.getValue().weight();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight();
+        }
+    }
+
+    private static long estimateWeight(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            long weight = 1;
+            for (Object nested : map.values()) {
+                weight += estimateWeight(nested);
+            }
+            return weight;
+        }
+        if (value instanceof Collection<?> collection) {
+            long weight = 1;
+            for (Object nested : collection) {
+                weight += estimateWeight(nested);
+            }
+            return weight;
+        }
+        if (value != null && value.getClass().isRecord()) {
+            // 响应 DTO 均为 record，按组件递归估算
+            long weight = 1;
+            for (RecordComponent component : value.getClass().getRecordComponents()) {
+                try {
+                    weight += estimateWeight(component.getAccessor().invoke(value));
+                } catch (ReflectiveOperationException ex) {
+                    weight++;
+                }
+            }
+            return weight;
+        }
+        return 1;
+    }
+}
@@ -1,370 +1,532 @@
 package com.example.poverty.service;
 
-import com.example.poverty.model.EconomicIndicator;
-import com.example.poverty.model.PovertyCounty;
-import com.example.poverty.model.Province;
 import com.example.poverty.repository.EconomicIndicatorRepository;
+import com.example.poverty.repository.EconomicIndicatorRepository.PovertyHistogram;
+import com.example.poverty.repository.EconomicIndicatorRepository.YearAggregate;
 import com.example.poverty.repository.PovertyCountyRepository;
+import com.example.poverty.repository.PovertyCountyRepository.ProvinceCount;
+import com.example.poverty.service.IndicatorColumnStore.Metric;
+import com.example.poverty.service.IndicatorColumnStore.Snapshot;
+import com.example.poverty.service.IndicatorColumnStore.YearColumns;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class DashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    private static final List<Integer> INCOME_TREND_YEARS = List.of(2018, 2019, 2020, 2021, 2022);
+    private static final List<String> POVERTY_CATEGORIES = List.of("<2%", "2%-5%", "5%-10%", ">10%");
     
+    private final IndicatorColumnStore indicatorStore;
     private final PovertyCountyRepository countyRepository;
     private final EconomicIndicatorRepository indicatorRepository;
-
-    // 手动添加构造器
-    public DashboardService(PovertyCountyRepository countyRepository, 
-                           EconomicIndicatorRepository indicatorRepository) {
+    private final Executor analysisExecutor;
+    private final long analysisTimeoutMs;
+
+    public DashboardService(IndicatorColumnStore indicatorStore,
+                            PovertyCountyRepository countyRepository,
+                            EconomicIndicatorRepository indicatorRepository,
+                            @Qualifier("analysisExecutor") Executor analysisExecutor,
+                            @Value("${dashboard.analysis.timeout-ms:3000}") long analysisTimeoutMs) {
+        this.indicatorStore = indicatorStore;
         this.countyRepository = countyRepository;
         this.indicatorRepository = indicatorRepository;
+        this.analysisExecutor = analysisExecutor;
+        this.analysisTimeoutMs = analysisTimeoutMs;
     }
 
-    public Map<String, Object> getSummary(Integer year) {
+    @Transactional(readOnly = true)
+    public Summary getSummary(Integer year) {
         int targetYear = year != null ? year : 2022;
+        if (!indicatorStore.isLoaded()) {
+            // 列存储尚未加载完成（如启动期间），直接使用数据库聚合，避免请求线程触发全量加载
+            return summaryFromDatabase(targetYear);
+        }
+        Snapshot snapshot = indicatorStore.snapshot();
+        YearColumns columns = snapshot.year(targetYear);
         
-        // 从数据库获取真实数据
-        List<PovertyCounty> allCounties = countyRepository.findAll();
-        List<EconomicIndicator> indicators = indicatorRepository.findByYear(targetYear);
-        
-        long totalCounties = allCounties.size();
-        long delistedCounties = allCounties.stream()
-                .filter(county -> county.getDelistingYear() != null && county.getDelistingYear() <= targetYear)
-                .count();
-        
-        double coverageRate = totalCounties > 0 ? (double) delistedCounties / totalCounties * 100 : 0;
-        
-        // 计算平均贫困率和收入
-        double avgPovertyRate = indicators.stream()
-                .mapToDouble(indicator -> indicator.getPovertyRate() != null ? indicator.getPovertyRate() : 0)
-                .average()
-                .orElse(0);
-        
-        double avgRuralIncome = indicators.stream()
-                .mapToDouble(indicator -> indicator.getRuralDisposableIncome() != null ? indicator.getRuralDisposableIncome() : 0)
-                .average()
-                .orElse(0);
-        
-        double totalGDP = indicators.stream()
-                .mapToDouble(indicator -> indicator.getGdp() != null ? indicator.getGdp() : 0)
-                .sum();
+        long totalCounties = snapshot.size();
+        long delistedCounties = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            Integer delistingYear = snapshot.delistingYear(i);
+            if (delistingYear != null && delistingYear <= targetYear) {
+                delistedCounties++;
+            }
+        }
         
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("totalCounties", totalCounties);
-        summary.put("delistedCounties", delistedCounties);
-        summary.put("coverageRate", Math.round(coverageRate * 10.0) / 10.0);
-        summary.put("funding", 156.8);
-        summary.put("avgPovertyRate", Math.round(avgPovertyRate * 10.0) / 10.0);
-        summary.put("avgRuralIncome", Math.round(avgRuralIncome));
-        summary.put("totalGDP", Math.round(totalGDP * 10.0) / 10.0);
+        // 计算平均贫困率和收入（缺失值按 0 计入）
+        double avgPovertyRate = rowAverage(columns, Metric.POVERTY_RATE);
+        double avgRuralIncome = rowAverage(columns, Metric.RURAL_DISPOSABLE_INCOME);
+        double totalGDP = sum(columns, Metric.GDP);
         
-        return summary;
+        return summary(totalCounties, delistedCounties, avgPovertyRate, avgRuralIncome, totalGDP);
     }
 
-    public Map<String, Object> getChartsData(Integer year) {
+    @Transactional(readOnly = true)
+    public ChartsData getChartsData(Integer year) {
         int targetYear = year != null ? year : 2022;
-        List<EconomicIndicator> indicators = indicatorRepository.findByYear(targetYear);
+        if (!indicatorStore.isLoaded()) {
+            return chartsDataFromDatabase(targetYear);
+        }
+        Snapshot snapshot = indicatorStore.snapshot();
+        YearColumns columns = snapshot.year(targetYear);
         
-        Map<String, Object> chartsData = new HashMap<>();
+        // 贫困率分布 - 单次遍历贫困率列完成分桶
+        long[] buckets = new long[4];
+        double[] povertyRates = columns.column(Metric.POVERTY_RATE);
+        for (int i = 0; i < povertyRates.length; i++) {
+            double rate = povertyRates[i];
+            if (!columns.has(i) || Double.isNaN(rate)) {
+                continue;
+            }
+            if (rate < 2) {
+                buckets[0]++;
+            } else if (rate < 5) {
+                buckets[1]++;
+            } else if (rate < 10) {
+                buckets[2]++;
+            } else {
+                buckets[3]++;
+            }
+        }
         
-        // 贫困率分布 - 基于真实数据计算
-        long countBelow2 = indicators.stream()
-                .filter(ind -> ind.getPovertyRate() != null && ind.getPovertyRate() < 2)
-                .count();
-        long count2to5 = indicators.stream()
-                .filter(ind -> ind.getPovertyRate() != null && ind.getPovertyRate() >= 2 && ind.getPovertyRate() < 5)
-                .count();
-        long count5to10 = indicators.stream()
-                .filter(ind -> ind.getPovertyRate() != null && ind.getPovertyRate() >= 5 && ind.getPovertyRate() < 10)
-                .count();
-        long countAbove10 = indicators.stream()
-                .filter(ind -> ind.getPovertyRate() != null && ind.getPovertyRate() >= 10)
-                .count();
+        // 收入增长趋势 - 计算近5年平均收入
+        List<Long> avgIncomes = INCOME_TREND_YEARS.stream()
+                .map(y -> Math.round(rowAverage(snapshot.year(y), Metric.RURAL_DISPOSABLE_INCOME)))
+                .collect(Collectors.toList());
         
-        Map<String, Object> povertyDistribution = new HashMap<>();
-        povertyDistribution.put("categories", Arrays.asList("<2%", "2%-5%", "5%-10%", ">10%"));
-        povertyDistribution.put("data", Arrays.asList(countBelow2, count2to5, count5to10, countAbove10));
-        chartsData.put("povertyDistribution", povertyDistribution);
+        // 地区分布 - 按省份分组
+        Map<String, Long> regionCounts = new LinkedHashMap<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            String provinceName = snapshot.provinceName(i);
+            if (snapshot.hasProvince(i) && provinceName != null) {
+                regionCounts.merge(provinceName, 1L, Long::sum);
+            }
+        }
         
-        // 收入增长趋势 - 计算近5年平均收入
-        List<Integer> years = Arrays.asList(2018, 2019, 2020, 2021, 2022);
-        List<Double> avgIncomes = years.stream().map(y -> {
-            List<EconomicIndicator> yearIndicators = indicatorRepository.findByYear(y);
-            return yearIndicators.stream()
-                    .mapToDouble(ind -> ind.getRuralDisposableIncome() != null ? ind.getRuralDisposableIncome() : 0)
-                    .average()
-                    .orElse(0);
-        }).collect(Collectors.toList());
+        return chartsData(buckets, avgIncomes, regionCounts);
+    }
+
+    /**
+     * Same KPIs as {@link #getSummary(Integer)}, computed with COUNT/AVG/SUM in the database.
+     */
+    private Summary summaryFromDatabase(int targetYear) {
+        long totalCounties = countyRepository.count();
+        long delistedCounties = countyRepository.countByDelistingYearLessThanEqual(targetYear);
+        YearAggregate aggregate = indicatorRepository.aggregateByYears(List.of(targetYear)).stream()
+                .findFirst()
+                .orElse(null);
         
-        Map<String, Object> incomeTrend = new HashMap<>();
-        incomeTrend.put("years", years);
-        incomeTrend.put("income", avgIncomes.stream().map(income -> Math.round(income)).collect(Collectors.toList()));
-        chartsData.put("incomeTrend", incomeTrend);
+        return summary(totalCounties, delistedCounties,
+                aggregate != null ? aggregate.getAvgPovertyRate() : 0,
+                aggregate != null ? aggregate.getAvgRuralIncome() : 0,
+                aggregate != null ? aggregate.getTotalGdp() : 0);
+    }
+
+    /**
+     * Same charts as {@link #getChartsData(Integer)}: a CASE-bucketed histogram, one grouped AVG over the
+     * trend years and a GROUP BY province count.
+     */
+    private ChartsData chartsDataFromDatabase(int targetYear) {
+        PovertyHistogram histogram = indicatorRepository.povertyHistogram(targetYear);
+        long[] buckets = {
+                histogram.getBelow2(), histogram.getFrom2to5(), histogram.getFrom5to10(), histogram.getAbove10()
+        };
         
-        // 地区分布 - 按省份分组（修复这里的问题）
-        Map<String, Long> regionCounts = new HashMap<>();
-        List<PovertyCounty> counties = countyRepository.findAll();
+        Map<Integer, Double> incomeByYear = indicatorRepository.aggregateByYears(INCOME_TREND_YEARS).stream()
+                .collect(Collectors.toMap(YearAggregate::getYear, YearAggregate::getAvgRuralIncome));
+        List<Long> avgIncomes = INCOME_TREND_YEARS.stream()
+                .map(y -> Math.round(incomeByYear.getOrDefault(y, 0.0)))
+                .collect(Collectors.toList());
         
-        for (PovertyCounty county : counties) {
-            Province province = county.getProvince();
-            if (province != null && province.getProvinceName() != null) {
-                String provinceName = province.getProvinceName();
-                regionCounts.put(provinceName, regionCounts.getOrDefault(provinceName, 0L) + 1);
-            }
+        Map<String, Long> regionCounts = new LinkedHashMap<>();
+        for (ProvinceCount row : countyRepository.countByProvince()) {
+            regionCounts.merge(row.getProvinceName(), row.getCountyCount(), Long::sum);
         }
         
-        Map<String, Object> regionDistribution = new HashMap<>();
-        regionDistribution.put("regions", new ArrayList<>(regionCounts.keySet()));
-        regionDistribution.put("counts", new ArrayList<>(regionCounts.values()));
-        chartsData.put("regionDistribution", regionDistribution);
+        return chartsData(buckets, avgIncomes, regionCounts);
+    }
+
+    private Summary summary(long totalCounties, long delistedCounties,
+                            double avgPovertyRate, double avgRuralIncome, double totalGDP) {
+        double coverageRate = totalCounties > 0 ? (double) delistedCounties / totalCounties * 100 : 0;
         
-        return chartsData;
+        return new Summary(
+                totalCounties,
+                delistedCounties,
+                round1(coverageRate),
+                156.8,
+                round1(avgPovertyRate),
+                Math.round(avgRuralIncome),
+                round1(totalGDP));
+    }
+
+    private ChartsData chartsData(long[] buckets, List<Long> avgIncomes, Map<String, Long> regionCounts) {
+        return new ChartsData(
+                new PovertyDistribution(POVERTY_CATEGORIES, List.of(buckets[0], buckets[1], buckets[2], buckets[3])),
+                new IncomeTrend(INCOME_TREND_YEARS, avgIncomes),
+                new RegionDistribution(new ArrayList<>(regionCounts.keySet()), new ArrayList<>(regionCounts.values())));
     }
 
-    public Map<String, Object> getAnalysisData(Integer year) {
+    /**
+     * Builds the small analysis sections concurrently on the analysis executor. Sections only read the
+     * immutable snapshot pinned by the {@link AnalysisContext}, so they need no transaction or locking.
+     * A section that fails or misses the request deadline is returned as {@code null} and listed under
+     * {@code failedSections}; {@code sectionTimings} reports how long each section took. A section past the
+     * deadline is cancelled with an interrupt, and one that has not started yet never runs.
+     * <p>
+     * The per-county arrays ({@code gdpPovertyRelation}, {@code correlation}) are not part of the result;
+     * they are written straight to the response by {@link #writeAnalysisData}.
+     */
+    @Transactional(readOnly = true)
+    public AnalysisSections getAnalysisData(Integer year) {
+        return getAnalysisData(analysisContext(year, null));
+    }
+
+    /**
+     * Province view of {@link #getAnalysisData(Integer)}: every section only visits the counties of
+     * {@code province}, looked up by name in the store's province index.
+     */
+    @Transactional(readOnly = true)
+    public AnalysisSections getAnalysisDataByProvince(String province, Integer year) {
+        return getAnalysisData(analysisContext(year, province));
+    }
+
+    /**
+     * Pins the current store snapshot for one analysis request.
+     *
+     * @param province province name to scope to, or {@code null} for the national view
+     */
+    public AnalysisContext analysisContext(Integer year, String province) {
         int targetYear = year != null ? year : 2022;
-        List<EconomicIndicator> indicators = indicatorRepository.findByYear(targetYear);
-        List<PovertyCounty> counties = countyRepository.findAll();
-        
-        Map<String, Object> analysisData = new HashMap<>();
+        return AnalysisContext.load(indicatorStore.snapshot(), targetYear, province);
+    }
+
+    /**
+     * Analysis sections of an already resolved context, national or province-scoped.
+     */
+    public AnalysisSections getAnalysisData(AnalysisContext context) {
+        return buildAnalysis(context);
+    }
+
+    @SuppressWarnings("unchecked")
+    private AnalysisSections buildAnalysis(AnalysisContext context) {
+        int targetYear = context.targetYear();
+        Map<String, Supplier<Object>> sections = new LinkedHashMap<>();
+        sections.put("yearComparison", () -> buildYearComparison(context));
+        sections.put("trendSeries", () -> buildTrendSeries(context));
+        sections.put("countyComparison", () -> buildCountyComparison(context));
+        sections.put("heatmap", () -> buildHeatmap(context));
+        sections.put("policyEffect", () -> buildPolicyEffect(context));
         
-        // GDP 与贫困率散点
-        List<Map<String, Object>> gdpPovertyData = indicators.stream()
-                .filter(ind -> ind.getGdp() != null && ind.getPovertyRate() != null && ind.getCounty() != null)
-                .map(ind -> {
-                    Map<String, Object> dataItem = new HashMap<>();
-                    dataItem.put("gdp", ind.getGdp());
-                    dataItem.put("poverty", ind.getPovertyRate());
-                    PovertyCounty county = ind.getCounty();
-                    String countyName = county != null ? county.getCountyName() : "未知县";
-                    dataItem.put("county", countyName);
-                    Province province = county != null ? county.getProvince() : null;
-                    dataItem.put("province", province != null ? province.getProvinceName() : "未知省份");
-                    dataItem.put("year", ind.getYear());
-                    dataItem.put("income", ind.getRuralDisposableIncome());
-                    dataItem.put("gdpPerCapita", ind.getGdpPerCapita());
-                    dataItem.put("fiscalRevenue", ind.getFiscalRevenue());
-                    dataItem.put("gdpYoy", ind.getGdpYoy());
-                    return dataItem;
-                })
-                .collect(Collectors.toList());
-        analysisData.put("gdpPovertyRelation", gdpPovertyData);
+        Map<String, Long> timings = new ConcurrentHashMap<>();
+        // 用 FutureTask 而非 CompletableFuture：超时后 cancel(true) 才会真正中断执行线程
+        Map<String, FutureTask<Object>> futures = new LinkedHashMap<>();
+        sections.forEach((name, builder) -> {
+            FutureTask<Object> task = new FutureTask<>(() -> {
+                long start = System.nanoTime();
+                try {
+                    return builder.get();
+                } finally {
+                    timings.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            });
+            futures.put(name, task);
+            analysisExecutor.execute(task);
+        });
         
-        List<Integer> years = buildYearRange(targetYear);
-        analysisData.put("yearComparison", buildYearComparison(years));
-        analysisData.put("trendSeries", buildTrendSeries(years));
-        analysisData.put("countyComparison", buildCountyComparison(indicators));
-        analysisData.put("heatmap", buildHeatmap(counties, indicators));
-        analysisData.put("policyEffect", buildPolicyEffect(targetYear));
-        analysisData.put("correlation", buildCorrelationPoints(indicators));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(analysisTimeoutMs);
+        Map<String, Object> analysisData = new HashMap<>();
+        List<String> failedSections = new ArrayList<>();
+        futures.forEach((name, future) -> {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                analysisData.put(name, future.get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException ex) {
+                future.cancel(true);
+                log.warn("Analysis section {} missed the {} ms deadline (year {}, province {})",
+                        name, analysisTimeoutMs, targetYear, context.province());
+                analysisData.put(name, null);
+                failedSections.add(name);
+            } catch (ExecutionException ex) {
+                log.error("Analysis section {} failed (year {}, province {})",
+                        name, targetYear, context.province(), ex.getCause());
+                analysisData.put(name, null);
+                failedSections.add(name);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                analysisData.put(name, null);
+                failedSections.add(name);
+            }
+        });
         
-        return analysisData;
+        log.debug("Analysis sections for {} took {} ms", targetYear, timings);
+        return new AnalysisSections(
+                (YearComparison) analysisData.get("yearComparison"),
+                (TrendSeries) analysisData.get("trendSeries"),
+                (CountyComparison) analysisData.get("countyComparison"),
+                (List<HeatmapCell>) analysisData.get("heatmap"),
+                (PolicyEffect) analysisData.get("policyEffect"),
+                new TreeMap<>(timings),
+                failedSections);
     }
 
-    public Map<String, Object> getAnalysisDataByProvince(String province, Integer year) {
-        return getAnalysisData(year);
+    /**
+     * Partial results (a section failed or timed out) must not be cached.
+     */
+    public static boolean isComplete(AnalysisSections analysisData) {
+        return analysisData.failedSections().isEmpty();
     }
 
-    private Map<String, Object> buildCountyComparison(List<EconomicIndicator> indicators) {
-        List<EconomicIndicator> top = indicators.stream()
-                .filter(ind -> ind.getGdp() != null && ind.getCounty() != null)
-                .sorted(Comparator.comparing(EconomicIndicator::getGdp).reversed())
-                .limit(10)
-                .collect(Collectors.toList());
+    /**
+     * Writes the full analysis object: the precomputed {@code sections} (normally the cached result of
+     * {@link #getAnalysisData(AnalysisContext)} for the same {@code context}) followed by the per-county
+     * arrays, which are generated row by row from the context's snapshot so no intermediate list is
+     * materialised. {@code sectionTimings} is only written when the sections were {@code built} for this
+     * request; timings of a cached result describe an earlier request.
+     */
+    public void writeAnalysisData(AnalysisContext context, AnalysisSections sections, boolean built,
+                                  JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeObjectField("yearComparison", sections.yearComparison());
+        generator.writeObjectField("trendSeries", sections.trendSeries());
+        generator.writeObjectField("countyComparison", sections.countyComparison());
+        generator.writeObjectField("heatmap", sections.heatmap());
+        generator.writeObjectField("policyEffect", sections.policyEffect());
+        if (built) {
+            generator.writeObjectField("sectionTimings", sections.sectionTimings());
+        }
+        if (!sections.failedSections().isEmpty()) {
+            generator.writeObjectField("failedSections", sections.failedSections());
+        }
+        generator.writeFieldName("gdpPovertyRelation");
+        writeGdpPovertyRelation(context, generator);
+        generator.writeFieldName("correlation");
+        writeCorrelationPoints(context, generator);
+        generator.writeEndObject();
+        generator.flush();
+    }
 
-        List<String> names = top.stream()
-                .map(ind -> ind.getCounty().getCountyName())
-                .collect(Collectors.toList());
-        List<Double> gdp = top.stream()
-                .map(EconomicIndicator::getGdp)
-                .map(this::round1)
-                .collect(Collectors.toList());
-        List<Double> income = top.stream()
-                .map(EconomicIndicator::getRuralDisposableIncome)
-                .map(value -> value != null ? (double) Math.round(value) : null)
-                .collect(Collectors.toList());
-        List<Double> fiscal = top.stream()
-                .map(EconomicIndicator::getFiscalRevenue)
-                .map(this::round1)
-                .collect(Collectors.toList());
+    // GDP 与贫困率散点
+    private void writeGdpPovertyRelation(AnalysisContext context, JsonGenerator generator) throws IOException {
+        Snapshot snapshot = context.snapshot();
+        YearColumns columns = context.current();
+        generator.writeStartArray();
+        for (int i : context.ordinals()) {
+            if (!columns.has(i)
+                    || Double.isNaN(columns.value(Metric.GDP, i))
+                    || Double.isNaN(columns.value(Metric.POVERTY_RATE, i))) {
+                continue;
+            }
+            generator.writeStartObject();
+            generator.writeNumberField("gdp", columns.value(Metric.GDP, i));
+            generator.writeNumberField("poverty", columns.value(Metric.POVERTY_RATE, i));
+            generator.writeStringField("county", snapshot.countyName(i));
+            generator.writeStringField("province", snapshot.hasProvince(i) ? snapshot.provinceName(i) : "未知省份");
+            generator.writeNumberField("year", context.targetYear());
+            writeNullableField(generator, "income", columns.value(Metric.RURAL_DISPOSABLE_INCOME, i));
+            writeNullableField(generator, "gdpPerCapita", columns.value(Metric.GDP_PER_CAPITA, i));
+            writeNullableField(generator, "fiscalRevenue", columns.value(Metric.FISCAL_REVENUE, i));
+            writeNullableField(generator, "gdpYoy", columns.value(Metric.GDP_YOY, i));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
 
-        Map<String, Object> comparison = new HashMap<>();
-        comparison.put("counties", names);
-        comparison.put("gdp", gdp);
-        comparison.put("income", income);
-        comparison.put("fiscal", fiscal);
-        return comparison;
+    private CountyComparison buildCountyComparison(AnalysisContext context) {
+        Snapshot snapshot = context.snapshot();
+        YearColumns columns = context.current();
+        double[] gdpColumn = columns.column(Metric.GDP);
+        List<Integer> top = new ArrayList<>();
+        for (int i : context.ordinals()) {
+            if (columns.has(i) && !Double.isNaN(gdpColumn[i])) {
+                top.add(i);
+            }
+        }
+        top.sort((a, b) -> Double.compare(gdpColumn[b], gdpColumn[a]));
+        if (top.size() > 10) {
+            top = top.subList(0, 10);
+        }
+
+        List<String> names = new ArrayList<>();
+        List<Double> gdp = new ArrayList<>();
+        List<Double> income = new ArrayList<>();
+        List<Double> fiscal = new ArrayList<>();
+        for (int ordinal : top) {
+            names.add(snapshot.countyName(ordinal));
+            gdp.add(round1(gdpColumn[ordinal]));
+            double incomeValue = columns.value(Metric.RURAL_DISPOSABLE_INCOME, ordinal);
+            income.add(Double.isNaN(incomeValue) ? null : (double) Math.round(incomeValue));
+            fiscal.add(round1(boxed(columns.value(Metric.FISCAL_REVENUE, ordinal))));
+        }
+
+        return new CountyComparison(names, gdp, income, fiscal);
     }
 
-    private Map<String, Object> buildTrendSeries(List<Integer> years) {
+    private TrendSeries buildTrendSeries(AnalysisContext context) {
         List<Double> poverty = new ArrayList<>();
         List<Double> income = new ArrayList<>();
         List<Double> gdp = new ArrayList<>();
 
-        for (Integer year : years) {
-            List<EconomicIndicator> yearIndicators = indicatorRepository.findByYear(year);
-            poverty.add(round1(avg(yearIndicators.stream()
-                    .map(EconomicIndicator::getPovertyRate)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList()))));
-            income.add((double) Math.round(avg(yearIndicators.stream()
-                    .map(EconomicIndicator::getRuralDisposableIncome)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList()))));
-            gdp.add(round1(avg(yearIndicators.stream()
-                    .map(EconomicIndicator::getGdp)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList()))));
+        for (Integer year : context.years()) {
+            poverty.add(round1(context.average(year, Metric.POVERTY_RATE)));
+            income.add((double) Math.round(context.average(year, Metric.RURAL_DISPOSABLE_INCOME)));
+            gdp.add(round1(context.average(year, Metric.GDP)));
         }
 
-        Map<String, Object> trend = new HashMap<>();
-        trend.put("years", years);
-        trend.put("povertyRate", poverty);
-        trend.put("income", income);
-        trend.put("gdp", gdp);
-        return trend;
+        return new TrendSeries(context.years(), poverty, income, gdp);
     }
 
-    private Map<String, Object> buildYearComparison(List<Integer> years) {
+    private YearComparison buildYearComparison(AnalysisContext context) {
         List<Double> avgPovertyRates = new ArrayList<>();
         List<Double> avgIncomes = new ArrayList<>();
 
-        for (Integer year : years) {
-            List<EconomicIndicator> yearIndicators = indicatorRepository.findByYear(year);
-            avgPovertyRates.add(round1(avg(yearIndicators.stream()
-                    .map(EconomicIndicator::getPovertyRate)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList()))));
-            avgIncomes.add((double) Math.round(avg(yearIndicators.stream()
-                    .map(EconomicIndicator::getRuralDisposableIncome)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList()))));
+        for (Integer year : context.years()) {
+            avgPovertyRates.add(round1(context.average(year, Metric.POVERTY_RATE)));
+            avgIncomes.add((double) Math.round(context.average(year, Metric.RURAL_DISPOSABLE_INCOME)));
         }
 
-        Map<String, Object> yearComparison = new HashMap<>();
-        yearComparison.put("years", years);
-        yearComparison.put("avgPovertyRate", avgPovertyRates);
-        yearComparison.put("avgIncome", avgIncomes);
-        return yearComparison;
+        return new YearComparison(context.years(), avgPovertyRates, avgIncomes);
     }
 
-    private List<Map<String, Object>> buildHeatmap(List<PovertyCounty> counties,
-                                                   List<EconomicIndicator> indicators) {
-        Map<String, List<Double>> provinceRates = new HashMap<>();
-        indicators.stream()
-                .filter(ind -> ind.getCounty() != null && ind.getCounty().getProvince() != null)
-                .forEach(ind -> {
-                    String provinceName = ind.getCounty().getProvince().getProvinceName();
-                    if (provinceName != null && ind.getPovertyRate() != null) {
-                        provinceRates.computeIfAbsent(provinceName, k -> new ArrayList<>())
-                                .add(ind.getPovertyRate());
-                    }
-                });
-
+    private List<HeatmapCell> buildHeatmap(AnalysisContext context) {
+        Snapshot snapshot = context.snapshot();
+        YearColumns columns = context.current();
+        Map<String, double[]> provinceRates = new LinkedHashMap<>();
         Map<String, List<String>> provinceIndustries = new HashMap<>();
-        counties.stream()
-                .filter(c -> c.getProvince() != null && StringUtils.hasText(c.getMainIndustries()))
-                .forEach(c -> provinceIndustries.computeIfAbsent(c.getProvince().getProvinceName(), k -> new ArrayList<>())
-                        .add(c.getMainIndustries()));
+        double[] povertyRates = columns.column(Metric.POVERTY_RATE);
+        for (int i : context.ordinals()) {
+            String provinceName = snapshot.provinceName(i);
+            if (!snapshot.hasProvince(i) || provinceName == null) {
+                continue;
+            }
+            if (columns.has(i) && !Double.isNaN(povertyRates[i])) {
+                // [0] 累计值, [1] 计数
+                double[] acc = provinceRates.computeIfAbsent(provinceName, k -> new double[2]);
+                acc[0] += povertyRates[i];
+                acc[1]++;
+            }
+            if (StringUtils.hasText(snapshot.mainIndustries(i))) {
+                provinceIndustries.computeIfAbsent(provinceName, k -> new ArrayList<>())
+                        .add(snapshot.mainIndustries(i));
+            }
+        }
 
         return provinceRates.entrySet().stream()
                 .map(entry -> {
                     String province = entry.getKey();
-                    double avgRate = round1(avg(entry.getValue()));
+                    double[] acc = entry.getValue();
+                    double avgRate = round1(acc[0] / acc[1]);
                     String topIndustry = mostFrequent(provinceIndustries.getOrDefault(province, List.of()));
-                    Map<String, Object> row = new HashMap<>();
-                    row.put("name", province);
-                    row.put("value", avgRate);
-                    row.put("industry", topIndustry);
-                    return row;
+                    return new HeatmapCell(province, avgRate, topIndustry);
                 })
                 .collect(Collectors.toList());
     }
 
-    private Map<String, Object> buildPolicyEffect(int targetYear) {
-        int baselineYear = Math.max(2018, targetYear - 3);
-        List<EconomicIndicator> baselineIndicators = indicatorRepository.findByYear(baselineYear);
-        List<EconomicIndicator> currentIndicators = indicatorRepository.findByYear(targetYear);
-
-        Map<String, Object> effect = new HashMap<>();
-        effect.put("baselineYear", baselineYear);
-        effect.put("currentYear", targetYear);
+    private PolicyEffect buildPolicyEffect(AnalysisContext context) {
+        int baselineYear = context.baselineYear();
+        int targetYear = context.targetYear();
 
-        List<Map<String, Object>> metrics = new ArrayList<>();
+        List<PolicyMetric> metrics = new ArrayList<>();
         metrics.add(metric("贫困率(%)",
-                round1(avg(baselineIndicators.stream().map(EconomicIndicator::getPovertyRate).filter(Objects::nonNull).collect(Collectors.toList()))),
-                round1(avg(currentIndicators.stream().map(EconomicIndicator::getPovertyRate).filter(Objects::nonNull).collect(Collectors.toList())))));
+                round1(context.average(baselineYear, Metric.POVERTY_RATE)),
+                round1(context.average(targetYear, Metric.POVERTY_RATE))));
         metrics.add(metric("人均收入(元)",
-                (double) Math.round(avg(baselineIndicators.stream().map(EconomicIndicator::getRuralDisposableIncome).filter(Objects::nonNull).collect(Collectors.toList()))),
-                (double) Math.round(avg(currentIndicators.stream().map(EconomicIndicator::getRuralDisposableIncome).filter(Objects::nonNull).collect(Collectors.toList())))));
+                (double) Math.round(context.average(baselineYear, Metric.RURAL_DISPOSABLE_INCOME)),
+                (double) Math.round(context.average(targetYear, Metric.RURAL_DISPOSABLE_INCOME))));
         metrics.add(metric("GDP(亿元)",
-                round1(avg(baselineIndicators.stream().map(EconomicIndicator::getGdp).filter(Objects::nonNull).collect(Collectors.toList()))),
-                round1(avg(currentIndicators.stream().map(EconomicIndicator::getGdp).filter(Objects::nonNull).collect(Collectors.toList())))));
+                round1(context.average(baselineYear, Metric.GDP)),
+                round1(context.average(targetYear, Metric.GDP))));
         metrics.add(metric("财政收入(亿元)",
-                round1(avg(baselineIndicators.stream().map(EconomicIndicator::getFiscalRevenue).filter(Objects::nonNull).collect(Collectors.toList()))),
-                round1(avg(currentIndicators.stream().map(EconomicIndicator::getFiscalRevenue).filter(Objects::nonNull).collect(Collectors.toList())))));
+                round1(context.average(baselineYear, Metric.FISCAL_REVENUE)),
+                round1(context.average(targetYear, Metric.FISCAL_REVENUE))));
 
-        effect.put("metrics", metrics);
-        return effect;
+        return new PolicyEffect(baselineYear, targetYear, metrics);
     }
 
-    private List<Map<String, Object>> buildCorrelationPoints(List<EconomicIndicator> indicators) {
-        List<Map<String, Object>> points = new ArrayList<>();
-        for (EconomicIndicator indicator : indicators) {
-            if (indicator.getPovertyRate() == null) {
+    private void writeCorrelationPoints(AnalysisContext context, JsonGenerator generator) throws IOException {
+        YearColumns columns = context.current();
+        int points = 0;
+        generator.writeStartArray();
+        for (int i : context.ordinals()) {
+            if (!columns.has(i) || Double.isNaN(columns.value(Metric.POVERTY_RATE, i))) {
                 continue;
             }
-            double poverty = indicator.getPovertyRate();
-            double educationScore = normalize(indicator.getRuralDisposableIncome(), 6000, 20000);
-            double industryScore = normalize(indicator.getGdpPerCapita(), 16000, 60000);
-            double infrastructureScore = normalize(indicator.getFiscalRevenue(), 2.0, 25.0);
+            double poverty = columns.value(Metric.POVERTY_RATE, i);
+            double educationScore = normalize(columns.value(Metric.RURAL_DISPOSABLE_INCOME, i), 6000, 20000);
+            double industryScore = normalize(columns.value(Metric.GDP_PER_CAPITA, i), 16000, 60000);
+            double infrastructureScore = normalize(columns.value(Metric.FISCAL_REVENUE, i), 2.0, 25.0);
 
-            points.add(correlationPoint("教育发展", educationScore, poverty));
-            points.add(correlationPoint("产业活力", industryScore, poverty));
-            points.add(correlationPoint("基础设施", infrastructureScore, poverty));
+            writeCorrelationPoint(generator, "教育发展", educationScore, poverty);
+            writeCorrelationPoint(generator, "产业活力", industryScore, poverty);
+            writeCorrelationPoint(generator, "基础设施", infrastructureScore, poverty);
+            points += 3;
 
-            if (points.size() > 300) {
+            if (points > 300) {
                 break;
             }
         }
-        return points;
+        generator.writeEndArray();
     }
 
-    private Map<String, Object> correlationPoint(String factor, double score, double poverty) {
-        Map<String, Object> point = new HashMap<>();
-        point.put("factor", factor);
-        point.put("score", round1(score * 100));
-        point.put("povertyRate", round1(poverty));
-        return point;
+    private void writeCorrelationPoint(JsonGenerator generator, String factor, double score, double poverty)
+            throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("factor", factor);
+        generator.writeNumberField("score", round1(score * 100));
+        generator.writeNumberField("povertyRate", round1(poverty));
+        generator.writeEndObject();
     }
 
-    private Map<String, Object> metric(String name, Double before, Double after) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("metric", name);
-        map.put("before", before);
-        map.put("after", after);
-        map.put("change", before != null && after != null ? round1(after - before) : null);
-        return map;
+    // 缺失值（NaN）写为 null，与 boxed 一致
+    private void writeNullableField(JsonGenerator generator, String name, double value) throws IOException {
+        if (Double.isNaN(value)) {
+            generator.writeNullField(name);
+        } else {
+            generator.writeNumberField(name, value);
+        }
     }
 
-    private List<Integer> buildYearRange(int targetYear) {
-        int end = Math.max(targetYear, 2019);
-        int start = Math.max(2018, end - 4);
-        List<Integer> years = new ArrayList<>();
-        for (int y = start; y <= end; y++) {
-            years.add(y);
-        }
-        return years;
+    private PolicyMetric metric(String name, Double before, Double after) {
+        return new PolicyMetric(name, before, after, before != null && after != null ? round1(after - before) : null);
+    }
+
+    /**
+     * Mean over every row of the year, counting a missing value as 0.
+     */
+    private double rowAverage(YearColumns columns, Metric metric) {
+        return columns.rowCount() > 0 ? sum(columns, metric) / columns.rowCount() : 0;
     }
 
-    private double avg(List<Double> values) {
-        return values == null || values.isEmpty()
-                ? 0
-                : values.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+    private double sum(YearColumns columns, Metric metric) {
+        double[] column = columns.column(metric);
+        double total = 0;
+        for (int i = 0; i < column.length; i++) {
+            if (columns.has(i) && !Double.isNaN(column[i])) {
+                total += column[i];
+            }
+        }
+        return total;
     }
 
     private String mostFrequent(List<String> items) {
@@ -379,8 +541,8 @@ public class DashboardService {
                 .orElse("优势产业融合发展");
     }
 
-    private double normalize(Double value, double min, double max) {
-        if (value == null) {
+    private double normalize(double value, double min, double max) {
+        if (Double.isNaN(value)) {
             return 0;
         }
         double clamped = Math.max(min, Math.min(max, value));
@@ -394,4 +556,56 @@ public class DashboardService {
     private Double round1(Double value) {
         return value == null ? null : round1(value.doubleValue());
     }
-}
\ No newline at end of file
+
+    private Double boxed(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    public record Summary(
+            long totalCounties,
+            long delistedCounties,
+            double coverageRate,
+            double funding,
+            double avgPovertyRate,
+            long avgRuralIncome,
+            double totalGDP
+    ) {}
+
+    public record ChartsData(
+            PovertyDistribution povertyDistribution,
+            IncomeTrend incomeTrend,
+            RegionDistribution regionDistribution
+    ) {}
+
+    public record PovertyDistribution(List<String> categories, List<Long> data) {}
+
+    public record IncomeTrend(List<Integer> years, List<Long> income) {}
+
+    public record RegionDistribution(List<String> regions, List<Long> counts) {}
+
+    /**
+     * The aggregate analysis sections; a section that failed or timed out is {@code null} and named in
+     * {@code failedSections}.
+     */
+    public record AnalysisSections(
+            YearComparison yearComparison,
+            TrendSeries trendSeries,
+            CountyComparison countyComparison,
+            List<HeatmapCell> heatmap,
+            PolicyEffect policyEffect,
+            Map<String, Long> sectionTimings,
+            @JsonInclude(JsonInclude.Include.NON_EMPTY) List<String> failedSections
+    ) {}
+
+    public record YearComparison(List<Integer> years, List<Double> avgPovertyRate, List<Double> avgIncome) {}
+
+    public record TrendSeries(List<Integer> years, List<Double> povertyRate, List<Double> income, List<Double> gdp) {}
+
+    public record CountyComparison(List<String> counties, List<Double> gdp, List<Double> income, List<Double> fiscal) {}
+
+    public record HeatmapCell(String name, double value, String industry) {}
+
+    public record PolicyEffect(int baselineYear, int currentYear, List<PolicyMetric> metrics) {}
+
+    public record PolicyMetric(String metric, Double before, Double after, Double change) {}
+}
@@ -0,0 +1,93 @@
+package com.example.poverty.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic counters that change whenever county, project or indicator data is written.
+ * Derived results (dashboard cache entries, ETags) remember the version they were built from and are
+ * discarded once it moves on.
+ * <p>
+ * Besides the global version there is one counter per county, so that a county detail ETag only
+ * changes when that county is touched, and a bulk generation for writes that may affect every county.
+ */
+@Component
+public class DataVersion {
+
+    // 区分进程重启，避免重启后版本号从头计数导致 ETag 误命中
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong version = new AtomicLong(1);
+    private final AtomicLong bulkGeneration = new AtomicLong(1);
+    private final Map<Long, AtomicLong> countyVersions = new ConcurrentHashMap<>();
+    // 最近一次写入的时间，用于判断从库是否可能还没追上
+    private final Map<Long, Long> countyWrittenAt = new ConcurrentHashMap<>();
+    private volatile long bulkWrittenAt;
+
+    public long current() {
+        return version.get();
+    }
+
+    public long bump() {
+        return version.incrementAndGet();
+    }
+
+    /**
+     * Marks a single county's data as changed.
+     */
+    public void bumpCounty(Long countyId) {
+        if (countyId != null) {
+            countyVersions.computeIfAbsent(countyId, id -> new AtomicLong()).incrementAndGet();
+            countyWrittenAt.put(countyId, System.currentTimeMillis());
+        }
+        bump();
+    }
+
+    /**
+     * Marks data of any county as changed, e.g. after a full reload.
+     */
+    public void bumpAll() {
+        bulkGeneration.incrementAndGet();
+        bulkWrittenAt = System.currentTimeMillis();
+        bump();
+    }
+
+    /**
+     * Whether any of {@code countyIds} (or all counties, through {@link #bumpAll}) was written during the
+     * last {@code windowMs} milliseconds.
+     */
+    public boolean writtenWithin(Collection<Long> countyIds, long windowMs) {
+        long since = System.currentTimeMillis() - windowMs;
+        if (bulkWrittenAt >= since) {
+            return true;
+        }
+        for (Long countyId : countyIds) {
+            Long writtenAt = countyWrittenAt.get(countyId);
+            if (writtenAt != null && writtenAt >= since) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String etag() {
+        return etag(version.get());
+    }
+
+    /**
+     * ETag of a version read earlier with {@link #current()}, for responses that pin one version.
+     */
+    public String etag(long version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+
+    public String countyEtag(Long countyId) {
+        AtomicLong countyVersion = countyVersions.get(countyId);
+        return "\"" + epoch + "-" + bulkGeneration.get() + "-c" + countyId + "-"
+                + (countyVersion != null ? countyVersion.get() : 0) + "\"";
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.poverty.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Streams table rows to an output stream as CSV or NDJSON. Rows are read through a forward-only,
+ * read-only JDBC cursor with a bounded fetch size and written one at a time, so memory use does not
+ * depend on the table size and no entity is created.
+ */
+@Service
+public class ExportService {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private record Column(String label, String expression) {}
+
+    public enum Dataset {
+        INDICATORS(List.of(
+                new Column("countyId", "e.county_id"),
+                new Column("countyName", "c.county_name"),
+                new Column("provinceName", "p.province_name"),
+                new Column("year", "e.year"),
+                new Column("gdp", "e.gdp"),
+                new Column("gdpYoy", "e.gdp_yoy"),
+                new Column("gdpPerCapita", "e.gdp_per_capita"),
+                new Column("ruralDisposableIncome", "e.rural_disposable_income"),
+                new Column("ruralIncomeYoy", "e.rural_income_yoy"),
+                new Column("fiscalRevenue", "e.fiscal_revenue"),
+                new Column("fiscalRevenueYoy", "e.fiscal_revenue_yoy"),
+                new Column("povertyRate", "e.poverty_rate")),
+                "economic_indicator e join poverty_county c on c.county_id = e.county_id " +
+                        "left join province p on p.province_id = c.province_id",
+                "e.year = ?",
+                "e.county_id, e.year"),
+        COUNTIES(List.of(
+                new Column("countyId", "c.county_id"),
+                new Column("countyName", "c.county_name"),
+                new Column("provinceId", "c.province_id"),
+                new Column("provinceName", "p.province_name"),
+                new Column("delistingYear", "c.delisting_year"),
+                new Column("population", "c.population"),
+                new Column("area", "c.area"),
+                new Column("povertyLevel", "c.poverty_level"),
+                new Column("povertyAlleviationRate", "c.poverty_alleviation_rate"),
+                new Column("economicGrowthRate", "c.economic_growth_rate"),
+                new Column("employmentRate", "c.employment_rate"),
+                new Column("coveragePopulation", "c.coverage_population"),
+                new Column("totalInvestment", "c.total_investment"),
+                new Column("mainIndustries", "c.main_industries"),
+                new Column("educationSupport", "c.education_support")),
+                "poverty_county c left join province p on p.province_id = c.province_id",
+                null,
+                "c.county_id"),
+        PROJECTS(List.of(
+                new Column("projectId", "j.project_id"),
+                new Column("countyId", "j.county_id"),
+                new Column("countyName", "c.county_name"),
+                new Column("projectName", "j.project_name"),
+                new Column("category", "j.category"),
+                new Column("investment", "j.investment"),
+                new Column("beneficiaries", "j.beneficiaries"),
+                new Column("status", "j.status"),
+                new Column("progress", "j.progress"),
+                new Column("startYear", "j.start_year"),
+                new Column("endYear", "j.end_year"),
+                new Column("leadUnit", "j.lead_unit"),
+                new Column("description", "j.description"),
+                new Column("impactScore", "j.impact_score")),
+                "county_project j join poverty_county c on c.county_id = j.county_id",
+                // 年份过滤：该年份处于项目周期内
+                "j.start_year <= ? and (j.end_year is null or j.end_year >= ?)",
+                "j.project_id");
+
+        private final List<Column> columns;
+        private final String from;
+        private final String yearCondition;
+        private final String orderBy;
+
+        Dataset(List<Column> columns, String from, String yearCondition, String orderBy) {
+            this.columns = columns;
+            this.from = from;
+            this.yearCondition = yearCondition;
+            this.orderBy = orderBy;
+        }
+
+        public static Dataset fromPath(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+
+        public boolean supportsYear() {
+            return yearCondition != null;
+        }
+    }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes every row of {@code dataset} matching the optional filters to {@code out}.
+     *
+     * @param year       indicator year, or for projects a year inside the project period; ignored for counties
+     * @param provinceId restricts rows to counties of one province
+     */
+    public void export(Dataset dataset, Format format, Integer year, Long provinceId, OutputStream out)
+            throws IOException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("select ")
+                .append(dataset.columns.stream().map(Column::expression).collect(Collectors.joining(", ")))
+                .append(" from ").append(dataset.from);
+        List<String> conditions = new ArrayList<>();
+        if (year != null && dataset.supportsYear()) {
+            conditions.add(dataset.yearCondition);
+            long placeholders = dataset.yearCondition.chars().filter(ch -> ch == '?').count();
+            for (int i = 0; i < placeholders; i++) {
+                params.add(year);
+            }
+        }
+        if (provinceId != null) {
+            conditions.add("c.province_id = ?");
+            params.add(provinceId);
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" where ").append(String.join(" and ", conditions));
+        }
+        sql.append(" order by ").append(dataset.orderBy);
+
+        RowSink sink = format == Format.NDJSON ? new NdjsonSink(out, dataset.columns) : new CsvSink(out, dataset.columns);
+        try {
+            jdbcTemplate.query(forwardOnly(sql.toString(), params), (RowCallbackHandler) rs -> {
+                try {
+                    sink.write(rs);
+                } catch (IOException ex) {
+                    // 客户端断开时中止游标读取
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        sink.finish();
+    }
+
+    private PreparedStatementCreator forwardOnly(String sql, List<Object> params) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL 需配合 useCursorFetch=true 才会按批读取
+            statement.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            return statement;
+        };
+    }
+
+    private interface RowSink {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final Writer writer;
+        private final int columnCount;
+
+        CsvSink(OutputStream out, List<Column> columns) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            this.columnCount = columns.size();
+            // UTF-8 BOM，便于 Excel 直接打开中文
+            writer.write('\uFEFF');
+            writer.write(columns.stream().map(Column::label).collect(Collectors.joining(",")));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i);
+                if (value instanceof String text) {
+                    writeQuoted(text);
+                } else if (value != null) {
+                    writer.write(plain(value));
+                }
+            }
+            writer.write('\n');
+        }
+
+        private void writeQuoted(String text) throws IOException {
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private final class NdjsonSink implements RowSink {
+        private final JsonGenerator generator;
+        private final List<Column> columns;
+
+        NdjsonSink(OutputStream out, List<Column> columns) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            // 行之间只用换行分隔，默认的根值分隔符会在第二行起多出前导空格
+            this.generator.setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 1; i <= columns.size(); i++) {
+                String label = columns.get(i - 1).label();
+                Object value = rs.getObject(i);
+                if (value == null) {
+                    generator.writeNullField(label);
+                } else if (value instanceof Number number) {
+                    generator.writeFieldName(label);
+                    generator.writeNumber(plain(number));
+                } else {
+                    generator.writeStringField(label, value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    // 浮点数不输出科学计数法
+    private static String plain(Object value) {
+        if (value instanceof Double number) {
+            return BigDecimal.valueOf(number).toPlainString();
+        }
+        if (value instanceof Float number) {
+            return BigDecimal.valueOf(number.doubleValue()).toPlainString();
+        }
+        if (value instanceof BigDecimal number) {
+            return number.toPlainString();
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.poverty.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Progress of the running (or last) bulk import. Only one import runs at a time.
+ */
+@Component
+public class ImportMonitor {
+
+    public record ImportStatus(
+            String state,
+            String kind,
+            LocalDateTime startedAt,
+            LocalDateTime finishedAt,
+            long rowsRead,
+            long rowsWritten,
+            long rowsRejected,
+            String message
+    ) {
+        public static ImportStatus idle() {
+            return new ImportStatus("IDLE", null, null, null, 0, 0, 0, "等待导入");
+        }
+    }
+
+    private final AtomicReference<ImportStatus> status = new AtomicReference<>(ImportStatus.idle());
+
+    /**
+     * @return {@code false} when another import is still running
+     */
+    public boolean tryStart(String kind) {
+        ImportStatus current = status.get();
+        if ("RUNNING".equals(current.state())) {
+            return false;
+        }
+        return status.compareAndSet(current,
+                new ImportStatus("RUNNING", kind, LocalDateTime.now(), null, 0, 0, 0, "正在导入"));
+    }
+
+    public void progress(long rowsRead, long rowsWritten, long rowsRejected) {
+        ImportStatus current = status.get();
+        status.set(new ImportStatus("RUNNING", current.kind(), current.startedAt(), null,
+                rowsRead, rowsWritten, rowsRejected, "正在导入"));
+    }
+
+    public void markCompleted(long rowsRead, long rowsWritten, long rowsRejected) {
+        ImportStatus current = status.get();
+        status.set(new ImportStatus("COMPLETED", current.kind(), current.startedAt(), LocalDateTime.now(),
+                rowsRead, rowsWritten, rowsRejected, "导入已完成"));
+    }
+
+    /**
+     * Imports commit in batches, so {@code rowsWritten} is what stays committed after the failure.
+     */
+    public void markFailed(String message, long rowsRead, long rowsWritten, long rowsRejected) {
+        ImportStatus current = status.get();
+        status.set(new ImportStatus("FAILED", current.kind(), current.startedAt(), LocalDateTime.now(),
+                rowsRead, rowsWritten, rowsRejected, message));
+    }
+
+    public ImportStatus currentStatus() {
+        return status.get();
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.poverty.service;
+
+import com.example.poverty.config.ReplicaRoutingDataSource;
+import com.example.poverty.model.EconomicIndicator;
+import com.example.poverty.model.PovertyCounty;
+import com.example.poverty.model.Province;
+import com.example.poverty.repository.EconomicIndicatorRepository;
+import com.example.poverty.repository.PovertyCountyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Keeps every economic indicator in memory as primitive columns, one {@code double[]} per metric and year,
+ * indexed by county ordinal. Readers grab an immutable {@link Snapshot}; writers rebuild the affected
+ * arrays and publish a new snapshot, so dashboard aggregations never touch Hibernate. Every published
+ * snapshot bumps the {@link DataVersion}, which invalidates results derived from the previous one.
+ */
+@Component
+public class IndicatorColumnStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicatorColumnStore.class);
+
+    public enum Metric {
+        GDP("gdp"),
+        GDP_YOY("gdpYoy"),
+        GDP_PER_CAPITA("gdpPerCapita"),
+        RURAL_DISPOSABLE_INCOME("ruralDisposableIncome"),
+        RURAL_INCOME_YOY("ruralIncomeYoy"),
+        FISCAL_REVENUE("fiscalRevenue"),
+        FISCAL_REVENUE_YOY("fiscalRevenueYoy"),
+        POVERTY_RATE("povertyRate");
+
+        private final String key;
+
+        Metric(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Property name of the metric on {@link EconomicIndicator}.
+         */
+        public String key() {
+            return key;
+        }
+
+        public static Optional<Metric> fromKey(String key) {
+            for (Metric metric : values()) {
+                if (metric.key.equalsIgnoreCase(key)) {
+                    return Optional.of(metric);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private static final int METRIC_COUNT = Metric.values().length;
+
+    private final PovertyCountyRepository countyRepository;
+    private final EconomicIndicatorRepository indicatorRepository;
+    private final DataVersion dataVersion;
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot;
+
+    public IndicatorColumnStore(PovertyCountyRepository countyRepository,
+                                EconomicIndicatorRepository indicatorRepository,
+                                DataVersion dataVersion) {
+        this.countyRepository = countyRepository;
+        this.indicatorRepository = indicatorRepository;
+        this.dataVersion = dataVersion;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Rebuilds the whole store from two projection queries.
+     */
+    public Snapshot reload() {
+        synchronized (writeLock) {
+            long start = System.currentTimeMillis();
+            // 导入后立即重载，必须读主库才能看到刚写入的数据
+            List<PovertyCountyRepository.CountyMeta> counties =
+                    ReplicaRoutingDataSource.primaryOnly(countyRepository::findAllMeta);
+            List<EconomicIndicatorRepository.IndicatorValues> rows =
+                    ReplicaRoutingDataSource.primaryOnly(indicatorRepository::findAllValues);
+
+            int size = counties.size();
+            long[] countyIds = new long[size];
+            String[] countyNames = new String[size];
+            long[] provinceIds = new long[size];
+            String[] provinceNames = new String[size];
+            int[] delistingYears = new int[size];
+            String[] mainIndustries = new String[size];
+            Map<Long, Integer> ordinals = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                PovertyCountyRepository.CountyMeta meta = counties.get(i);
+                countyIds[i] = meta.getCountyId();
+                countyNames[i] = meta.getCountyName();
+                provinceIds[i] = meta.getProvinceId() != null ? meta.getProvinceId() : 0L;
+                provinceNames[i] = meta.getProvinceName();
+                delistingYears[i] = meta.getDelistingYear() != null ? meta.getDelistingYear() : 0;
+                mainIndustries[i] = meta.getMainIndustries();
+                ordinals.put(meta.getCountyId(), i);
+            }
+
+            TreeMap<Integer, YearColumns> byYear = new TreeMap<>();
+            for (EconomicIndicatorRepository.IndicatorValues row : rows) {
+                Integer ordinal = ordinals.get(row.getCountyId());
+                if (ordinal == null || row.getYear() == null) {
+                    continue;
+                }
+                byYear.computeIfAbsent(row.getYear(), y -> YearColumns.empty(size))
+                        .set(ordinal, valuesOf(row));
+            }
+
+            Snapshot built = new Snapshot(countyIds, countyNames, provinceIds, provinceNames,
+                    delistingYears, mainIndustries, ordinals, byYear,
+                    CountyNameIndex.build(countyNames, provinceIds));
+            publish(built, null);
+            log.info("Indicator column store loaded {} counties, {} rows in {} ms",
+                    size, rows.size(), System.currentTimeMillis() - start);
+            return built;
+        }
+    }
+
+    /**
+     * Applies an edited county's name, province and attributes without reloading indicators.
+     */
+    public void refreshCounty(PovertyCounty county) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                // 尚未加载：首次加载会读到最新数据，这里只需推进版本
+                dataVersion.bumpCounty(county.getCountyId());
+                return;
+            }
+            int ordinal = current.ordinalOf(county.getCountyId());
+            if (ordinal < 0) {
+                reload();
+                return;
+            }
+            Province province = county.getProvince();
+            String[] countyNames = current.countyNames.clone();
+            long[] provinceIds = current.provinceIds.clone();
+            String[] provinceNames = current.provinceNames.clone();
+            int[] delistingYears = current.delistingYears.clone();
+            String[] mainIndustries = current.mainIndustries.clone();
+            countyNames[ordinal] = county.getCountyName();
+            provinceIds[ordinal] = province != null && province.getProvinceId() != null ? province.getProvinceId() : 0L;
+            provinceNames[ordinal] = province != null ? province.getProvinceName() : null;
+            delistingYears[ordinal] = county.getDelistingYear() != null ? county.getDelistingYear() : 0;
+            mainIndustries[ordinal] = county.getMainIndustries();
+            // 名称索引只更新该县的倒排项
+            CountyNameIndex nameIndex = current.nameIndex.withCounty(ordinal, countyNames[ordinal], provinceIds[ordinal]);
+            publish(new Snapshot(current.countyIds, countyNames, provinceIds, provinceNames,
+                    delistingYears, mainIndustries, current.ordinals, current.byYear, nameIndex),
+                    county.getCountyId());
+        }
+    }
+
+    private void publish(Snapshot next, Long changedCountyId) {
+        snapshot = next;
+        if (changedCountyId != null) {
+            dataVersion.bumpCounty(changedCountyId);
+        } else {
+            dataVersion.bumpAll();
+        }
+    }
+
+    /**
+     * One row's metrics indexed by {@link Metric#ordinal()}; missing values are NaN.
+     */
+    static double[] valuesOf(EconomicIndicatorRepository.IndicatorValues row) {
+        double[] values = new double[METRIC_COUNT];
+        values[Metric.GDP.ordinal()] = toColumn(row.getGdp());
+        values[Metric.GDP_YOY.ordinal()] = toColumn(row.getGdpYoy());
+        values[Metric.GDP_PER_CAPITA.ordinal()] = toColumn(row.getGdpPerCapita());
+        values[Metric.RURAL_DISPOSABLE_INCOME.ordinal()] = toColumn(row.getRuralDisposableIncome());
+        values[Metric.RURAL_INCOME_YOY.ordinal()] = toColumn(row.getRuralIncomeYoy());
+        values[Metric.FISCAL_REVENUE.ordinal()] = toColumn(row.getFiscalRevenue());
+        values[Metric.FISCAL_REVENUE_YOY.ordinal()] = toColumn(row.getFiscalRevenueYoy());
+        values[Metric.POVERTY_RATE.ordinal()] = toColumn(row.getPovertyRate());
+        return values;
+    }
+
+    // null 在列中以 NaN 表示
+    private static double toColumn(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    /**
+     * Immutable view of the store. Arrays are shared between snapshots and must not be modified by callers.
+     */
+    public static final class Snapshot {
+        private final long[] countyIds;
+        private final String[] countyNames;
+        private final long[] provinceIds;
+        private final String[] provinceNames;
+        private final int[] delistingYears;
+        private final String[] mainIndustries;
+        private final Map<Long, Integer> ordinals;
+        private final TreeMap<Integer, YearColumns> byYear;
+        private final int[] allOrdinals;
+        private final Map<String, int[]> ordinalsByProvince;
+        private final CountyNameIndex nameIndex;
+
+        private Snapshot(long[] countyIds, String[] countyNames, long[] provinceIds, String[] provinceNames,
+                         int[] delistingYears, String[] mainIndustries, Map<Long, Integer> ordinals,
+                         TreeMap<Integer, YearColumns> byYear, CountyNameIndex nameIndex) {
+            this.countyIds = countyIds;
+            this.countyNames = countyNames;
+            this.provinceIds = provinceIds;
+            this.provinceNames = provinceNames;
+            this.delistingYears = delistingYears;
+            this.mainIndustries = mainIndustries;
+            this.ordinals = ordinals;
+            this.byYear = byYear;
+            this.nameIndex = nameIndex;
+            this.allOrdinals = new int[countyIds.length];
+            Map<String, List<Integer>> grouped = new HashMap<>();
+            for (int i = 0; i < countyIds.length; i++) {
+                allOrdinals[i] = i;
+                if (provinceIds[i] != 0L && provinceNames[i] != null) {
+                    grouped.computeIfAbsent(provinceNames[i], k -> new ArrayList<>()).add(i);
+                }
+            }
+            Map<String, int[]> byProvince = new HashMap<>();
+            grouped.forEach((name, list) -> byProvince.put(name, list.stream().mapToInt(Integer::intValue).toArray()));
+            this.ordinalsByProvince = byProvince;
+        }
+
+        public int size() {
+            return countyIds.length;
+        }
+
+        public int ordinalOf(Long countyId) {
+            Integer ordinal = countyId != null ? ordinals.get(countyId) : null;
+            return ordinal != null ? ordinal : -1;
+        }
+
+        public long countyId(int ordinal) {
+            return countyIds[ordinal];
+        }
+
+        public String countyName(int ordinal) {
+            return countyNames[ordinal];
+        }
+
+        public boolean hasProvince(int ordinal) {
+            return provinceIds[ordinal] != 0L;
+        }
+
+        public long provinceId(int ordinal) {
+            return provinceIds[ordinal];
+        }
+
+        public String provinceName(int ordinal) {
+            return provinceNames[ordinal];
+        }
+
+        public Integer delistingYear(int ordinal) {
+            return delistingYears[ordinal] != 0 ? delistingYears[ordinal] : null;
+        }
+
+        public String mainIndustries(int ordinal) {
+            return mainIndustries[ordinal];
+        }
+
+        /**
+         * Every county ordinal, in ascending order. Ordinals are assigned in ascending countyId order.
+         */
+        public int[] allOrdinals() {
+            return allOrdinals;
+        }
+
+        /**
+         * Ordinals of the counties in one province (ascending), empty for an unknown province.
+         */
+        public int[] provinceOrdinals(String provinceName) {
+            int[] scoped = provinceName != null ? ordinalsByProvince.get(provinceName) : null;
+            return scoped != null ? scoped : new int[0];
+        }
+
+        public CountyNameIndex nameIndex() {
+            return nameIndex;
+        }
+
+        public Set<Integer> years() {
+            return Collections.unmodifiableSet(byYear.keySet());
+        }
+
+        /**
+         * Columns for one year, or an all-empty set when the year has no rows.
+         */
+        public YearColumns year(int year) {
+            YearColumns columns = byYear.get(year);
+            return columns != null ? columns : YearColumns.empty(size());
+        }
+    }
+
+    /**
+     * One year's metrics. {@code present[i]} marks that county ordinal {@code i} has a row;
+     * a missing metric value inside a present row is stored as {@code NaN}.
+     */
+    public static final class YearColumns {
+        private final boolean[] present;
+        private final double[][] columns;
+        private int rowCount;
+
+        private YearColumns(boolean[] present, double[][] columns, int rowCount) {
+            this.present = present;
+            this.columns = columns;
+            this.rowCount = rowCount;
+        }
+
+        private static YearColumns empty(int size) {
+            double[][] columns = new double[METRIC_COUNT][size];
+            for (double[] column : columns) {
+                Arrays.fill(column, Double.NaN);
+            }
+            return new YearColumns(new boolean[size], columns, 0);
+        }
+
+        private void set(int ordinal, double[] values) {
+            if (!present[ordinal]) {
+                present[ordinal] = true;
+                rowCount++;
+            }
+            for (int m = 0; m < METRIC_COUNT; m++) {
+                columns[m][ordinal] = values[m];
+            }
+        }
+
+        public int rowCount() {
+            return rowCount;
+        }
+
+        public boolean has(int ordinal) {
+            return present[ordinal];
+        }
+
+        public double value(Metric metric, int ordinal) {
+            return columns[metric.ordinal()][ordinal];
+        }
+
+        public double[] column(Metric metric) {
+            return columns[metric.ordinal()];
+        }
+    }
+}
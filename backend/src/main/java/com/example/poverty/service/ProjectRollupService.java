@@ -0,0 +1,207 @@
+package com.example.poverty.service;
+
+import com.example.poverty.model.CountyProject;
+import com.example.poverty.model.CountyProjectRollup;
+import com.example.poverty.model.PovertyCounty;
+import com.example.poverty.repository.CountyProjectRollupRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * Keeps {@code county_project_rollup} and {@code poverty_county.total_investment} in step with project
+ * writes. Callers pass the delta of each change (the old project with sign -1, the new one with +1) and
+ * it is applied with atomic {@code col = col + ?} updates inside the caller's transaction, so detail views
+ * read a handful of rollup rows instead of re-summing every project.
+ */
+@Service
+public class ProjectRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectRollupService.class);
+
+    // 产业类项目按类别名称识别，与详情页原有口径一致
+    private static final String INDUSTRY_KEYWORD = "产业";
+
+    private static final String UPSERT_ROLLUP_SQL =
+            "insert into county_project_rollup (county_id, category, status, project_count, investment, beneficiaries) " +
+            "values (?, ?, ?, ?, ?, ?) " +
+            "on duplicate key update project_count = project_count + values(project_count), " +
+            "investment = investment + values(investment), beneficiaries = beneficiaries + values(beneficiaries)";
+
+    private static final String ADD_COUNTY_INVESTMENT_SQL =
+            "update poverty_county set total_investment = coalesce(total_investment, 0) + ? where county_id = ?";
+
+    private static final String REBUILD_ROLLUP_SQL =
+            "insert into county_project_rollup (county_id, category, status, project_count, investment, beneficiaries) " +
+            "select county_id, coalesce(category, ''), coalesce(status, ''), count(*), " +
+            "coalesce(sum(investment), 0), coalesce(sum(beneficiaries), 0) " +
+            "from county_project where county_id is not null " +
+            "group by county_id, coalesce(category, ''), coalesce(status, '')";
+
+    public record Delta(long countyId, String category, String status, int projects, double investment,
+                        long beneficiaries) {
+
+        public static Delta of(CountyProject project, int sign) {
+            return of(project.getCounty().getCountyId(), project.getCategory(), project.getStatus(),
+                    project.getInvestment(), project.getBeneficiaries(), sign);
+        }
+
+        public static Delta of(long countyId, String category, String status, Double investment,
+                               Integer beneficiaries, int sign) {
+            return new Delta(countyId, normalize(category), normalize(status), sign,
+                    sign * (investment != null ? investment : 0),
+                    sign * (long) (beneficiaries != null ? beneficiaries : 0));
+        }
+
+        private Delta plus(Delta other) {
+            return new Delta(countyId, category, status, projects + other.projects,
+                    investment + other.investment, beneficiaries + other.beneficiaries);
+        }
+
+        private boolean isZero() {
+            return projects == 0 && investment == 0 && beneficiaries == 0;
+        }
+    }
+
+    /**
+     * Project totals of one county, summed over its rollup rows.
+     */
+    public record Totals(int projectCount, int industryProjectCount, double investment, long beneficiaries) {
+        public static final Totals EMPTY = new Totals(0, 0, 0, 0);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CountyProjectRollupRepository rollupRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ProjectRollupService(JdbcTemplate jdbcTemplate,
+                                CountyProjectRollupRepository rollupRepository,
+                                EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupRepository = rollupRepository;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Fills the rollup table for databases that predate it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        Long rollups = jdbcTemplate.queryForObject("select count(*) from county_project_rollup", Long.class);
+        Long projects = jdbcTemplate.queryForObject("select count(*) from county_project", Long.class);
+        if ((rollups == null || rollups == 0) && projects != null && projects > 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes every rollup row from {@code county_project}. County totals are left untouched.
+     */
+    @Transactional
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update("delete from county_project_rollup");
+        int rows = jdbcTemplate.update(REBUILD_ROLLUP_SQL);
+        log.info("Rebuilt {} project rollup rows in {} ms", rows, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Applies the deltas to the rollups and to each county's total investment. Deltas for the same
+     * (county, category, status) are merged first, so an update that leaves the key unchanged costs one
+     * statement.
+     */
+    public void apply(Collection<Delta> deltas) {
+        Map<List<Object>, Delta> merged = new LinkedHashMap<>();
+        Map<Long, Double> investmentByCounty = new LinkedHashMap<>();
+        for (Delta delta : deltas) {
+            merged.merge(List.of(delta.countyId(), delta.category(), delta.status()), delta, Delta::plus);
+            investmentByCounty.merge(delta.countyId(), delta.investment(), Double::sum);
+        }
+        List<Delta> changed = merged.values().stream().filter(delta -> !delta.isZero()).toList();
+        if (!changed.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_ROLLUP_SQL, changed, changed.size(), (ps, delta) -> {
+                ps.setLong(1, delta.countyId());
+                ps.setString(2, delta.category());
+                ps.setString(3, delta.status());
+                ps.setInt(4, delta.projects());
+                ps.setDouble(5, delta.investment());
+                ps.setLong(6, delta.beneficiaries());
+            });
+            if (changed.stream().anyMatch(delta -> delta.projects() < 0)) {
+                // 最后一个项目移走后删除空行
+                jdbcTemplate.update("delete from county_project_rollup where project_count <= 0");
+            }
+        }
+        List<Map.Entry<Long, Double>> investments = investmentByCounty.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .toList();
+        if (!investments.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_COUNTY_INVESTMENT_SQL, investments, investments.size(), (ps, entry) -> {
+                ps.setDouble(1, entry.getValue());
+                ps.setLong(2, entry.getKey());
+            });
+            evictCounties(investments.stream().map(Map.Entry::getKey).toList());
+        }
+    }
+
+    // JDBC 更新绕过了 Hibernate，需在提交后清掉二级缓存中的旧县实体
+    private void evictCounties(List<Long> countyIds) {
+        Runnable evict = () -> countyIds.forEach(id -> entityManagerFactory.getCache().evict(PovertyCounty.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    public Totals totals(Long countyId) {
+        return sum(rollupRepository.findByCountyId(countyId));
+    }
+
+    public Map<Long, Totals> totals(Collection<Long> countyIds) {
+        Map<Long, List<CountyProjectRollup>> grouped = new HashMap<>();
+        for (CountyProjectRollup rollup : rollupRepository.findByCountyIdIn(countyIds)) {
+            grouped.computeIfAbsent(rollup.getCountyId(), id -> new ArrayList<>()).add(rollup);
+        }
+        Map<Long, Totals> result = new HashMap<>();
+        grouped.forEach((countyId, rollups) -> result.put(countyId, sum(rollups)));
+        return result;
+    }
+
+    private Totals sum(List<CountyProjectRollup> rollups) {
+        if (rollups.isEmpty()) {
+            return Totals.EMPTY;
+        }
+        int projects = 0;
+        int industryProjects = 0;
+        double investment = 0;
+        long beneficiaries = 0;
+        for (CountyProjectRollup rollup : rollups) {
+            projects += rollup.getProjectCount();
+            if (rollup.getCategory().contains(INDUSTRY_KEYWORD)) {
+                industryProjects += rollup.getProjectCount();
+            }
+            investment += rollup.getInvestment();
+            beneficiaries += rollup.getBeneficiaries();
+        }
+        return new Totals(projects, industryProjects, investment, beneficiaries);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.poverty.service;
+
+import com.example.poverty.model.CountyProject;
+import com.example.poverty.model.PovertyCounty;
+import com.example.poverty.repository.CountyProjectRepository;
+import com.example.poverty.repository.CountyProjectRepository.PortfolioCell;
+import com.example.poverty.repository.CountyProjectRepository.ProjectListItem;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Project writes and national project queries. Each write applies its delta to the county rollups and
+ * total investment in the same transaction as the project row itself.
+ */
+@Service
+public class ProjectService {
+
+    public enum Dimension {
+        CATEGORY, PROVINCE, YEAR
+    }
+
+    /**
+     * Optional filters shared by the project list and the portfolio statistics; {@code fromYear} /
+     * {@code toYear} keep projects whose period overlaps the range.
+     */
+    public record ProjectFilter(String category, String status, String leadUnit, Long provinceId,
+                                Integer fromYear, Integer toYear) {}
+
+    /**
+     * Totals for one group; dimensions not grouped by are left out of the JSON.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record PortfolioStat(String category, Long provinceId, String provinceName, Integer year,
+                                long projectCount, double investment, long beneficiaries) {}
+    private final CountyProjectRepository projectRepo;
+    private final ProjectRollupService rollupService;
+    private final DataVersion dataVersion;
+
+    public ProjectService(CountyProjectRepository projectRepo,
+                          ProjectRollupService rollupService,
+                          DataVersion dataVersion) {
+        this.projectRepo = projectRepo;
+        this.rollupService = rollupService;
+        this.dataVersion = dataVersion;
+    }
+
+    @Transactional
+    public CountyProject create(PovertyCounty county, CountyProject project) {
+        project.setCounty(county);
+        projectRepo.save(project);
+        rollupService.apply(List.of(ProjectRollupService.Delta.of(project, 1)));
+        bumpCountyAfterCommit(county.getCountyId());
+        return project;
+    }
+
+    @Transactional
+    public CountyProject update(Long countyId, Long projectId, Consumer<CountyProject> changes) {
+        CountyProject project = load(countyId, projectId);
+        ProjectRollupService.Delta before = ProjectRollupService.Delta.of(project, -1);
+        changes.accept(project);
+        projectRepo.save(project);
+        rollupService.apply(List.of(before, ProjectRollupService.Delta.of(project, 1)));
+        bumpCountyAfterCommit(countyId);
+        return project;
+    }
+
+    @Transactional
+    public void delete(Long countyId, Long projectId) {
+        CountyProject project = load(countyId, projectId);
+        projectRepo.delete(project);
+        rollupService.apply(List.of(ProjectRollupService.Delta.of(project, -1)));
+        bumpCountyAfterCommit(countyId);
+    }
+
+    // 提交前推进版本会让并发读按新版本缓存旧数据，因此等事务提交后再推进
+    private void bumpCountyAfterCommit(Long countyId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dataVersion.bumpCounty(countyId);
+                }
+            });
+        } else {
+            dataVersion.bumpCounty(countyId);
+        }
+    }
+
+    public Page<ProjectListItem> search(ProjectFilter filter, Pageable pageable) {
+        return projectRepo.search(filter.category(), filter.status(), filter.leadUnit(), filter.provinceId(),
+                filter.fromYear(), filter.toYear(), pageable);
+    }
+
+    /**
+     * Investment, beneficiaries and project count grouped by the given dimensions (none = grand total),
+     * largest investment first. One GROUP BY query returns category × province × year cells, which are
+     * then rolled up here.
+     */
+    public List<PortfolioStat> portfolio(ProjectFilter filter, Set<Dimension> groupBy) {
+        List<PortfolioCell> cells = projectRepo.aggregate(filter.category(), filter.status(), filter.leadUnit(),
+                filter.provinceId(), filter.fromYear(), filter.toYear());
+        boolean byCategory = groupBy.contains(Dimension.CATEGORY);
+        boolean byProvince = groupBy.contains(Dimension.PROVINCE);
+        boolean byYear = groupBy.contains(Dimension.YEAR);
+
+        Map<List<Object>, PortfolioStat> grouped = new LinkedHashMap<>();
+        for (PortfolioCell cell : cells) {
+            PortfolioStat stat = new PortfolioStat(
+                    byCategory ? cell.category() : null,
+                    byProvince ? cell.provinceId() : null,
+                    byProvince ? cell.provinceName() : null,
+                    byYear ? cell.startYear() : null,
+                    cell.projectCount() != null ? cell.projectCount() : 0,
+                    cell.investment() != null ? cell.investment() : 0,
+                    cell.beneficiaries() != null ? cell.beneficiaries() : 0);
+            // Arrays.asList 允许分组键中出现 null
+            grouped.merge(Arrays.asList(stat.category(), stat.provinceId(), stat.year()), stat, (a, b) ->
+                    new PortfolioStat(a.category(), a.provinceId(), a.provinceName(), a.year(),
+                            a.projectCount() + b.projectCount(), a.investment() + b.investment(),
+                            a.beneficiaries() + b.beneficiaries()));
+        }
+        List<PortfolioStat> result = new ArrayList<>(grouped.values());
+        result.sort(Comparator.comparingDouble(PortfolioStat::investment).reversed());
+        return result;
+    }
+
+    private CountyProject load(Long countyId, Long projectId) {
+        CountyProject project = projectRepo.findById(projectId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "项目不存在"));
+        if (!Objects.equals(project.getCounty().getCountyId(), countyId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "项目不属于当前县");
+        }
+        return project;
+    }
+}
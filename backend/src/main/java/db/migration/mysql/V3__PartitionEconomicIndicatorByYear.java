@@ -0,0 +1,55 @@
+package db.migration.mysql;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Range-partitions {@code economic_indicator} by year (MySQL only; it lives in the mysql migration folder).
+ * Year queries then touch a single partition. MySQL requires the partition column in every unique key and
+ * forbids foreign keys on partitioned tables, so the primary key becomes {@code (id, year)} and the
+ * county foreign key is dropped; {@code uk_indicator_county_year}, added in V7, contains the year.
+ * <p>
+ * Written in Java because databases created by {@code ddl-auto} carry generated foreign key names.
+ */
+public class V3__PartitionEconomicIndicatorByYear extends BaseJavaMigration {
+
+    private static final int FIRST_YEAR = 2018;
+    private static final int LAST_YEAR = 2030;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            List<String> foreignKeys = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery(
+                    "select constraint_name from information_schema.referential_constraints " +
+                    "where constraint_schema = database() and table_name = 'economic_indicator'")) {
+                while (rs.next()) {
+                    foreignKeys.add(rs.getString(1));
+                }
+            }
+            for (String foreignKey : foreignKeys) {
+                statement.execute("alter table economic_indicator drop foreign key `" + foreignKey + "`");
+            }
+
+            // 主键需包含年份，年份为空的行无法归入任何分区
+            statement.execute("delete from economic_indicator where year is null");
+            statement.execute("alter table economic_indicator modify year integer not null");
+            statement.execute("alter table economic_indicator drop primary key, add primary key (id, year)");
+            statement.execute("alter table economic_indicator partition by range (year) (" + partitions() + ")");
+        }
+    }
+
+    // 首个分区收纳更早年份，pmax 兜底此后新增年份
+    private String partitions() {
+        StringBuilder sql = new StringBuilder();
+        for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+            sql.append("partition p").append(year).append(" values less than (").append(year + 1).append("), ");
+        }
+        return sql.append("partition pmax values less than maxvalue").toString();
+    }
+}
@@ -0,0 +1,127 @@
+-- 基线表结构，即引入 Flyway 前 ddl-auto 建出的结构；已有库由 baseline-on-migrate 记为版本 1 并跳过本脚本，之后新增的对象见 V7
+
+create table province (
+    province_id   bigint       not null auto_increment,
+    province_name varchar(50)  not null,
+    primary key (province_id)
+);
+
+create table poverty_county (
+    county_id                bigint       not null auto_increment,
+    county_name              varchar(100) not null,
+    province_id              bigint,
+    delisting_year           integer,
+    population               double precision,
+    area                     double precision,
+    poverty_level            varchar(255),
+    poverty_alleviation_rate double precision,
+    economic_growth_rate     double precision,
+    employment_rate          double precision,
+    coverage_population      integer,
+    total_investment         double precision,
+    main_industries          varchar(255),
+    education_support        varchar(255),
+    primary key (county_id),
+    constraint fk_county_province foreign key (province_id) references province (province_id)
+);
+
+create table economic_indicator (
+    id                      bigint  not null auto_increment,
+    county_id               bigint,
+    year                    integer,
+    gdp                     double precision,
+    gdp_yoy                 double precision,
+    gdp_per_capita          double precision,
+    rural_disposable_income double precision,
+    rural_income_yoy        double precision,
+    fiscal_revenue          double precision,
+    fiscal_revenue_yoy      double precision,
+    poverty_rate            double precision,
+    primary key (id),
+    constraint fk_indicator_county foreign key (county_id) references poverty_county (county_id)
+);
+
+create table agricultural_output (
+    id                bigint not null auto_increment,
+    county_id         bigint,
+    year              integer,
+    total_agri_output double precision,
+    grain_output      double precision,
+    rice_output       double precision,
+    corn_output       double precision,
+    primary key (id),
+    constraint fk_agri_output_county foreign key (county_id) references poverty_county (county_id)
+);
+
+create table county_project (
+    project_id    bigint       not null auto_increment,
+    county_id     bigint,
+    project_name  varchar(150) not null,
+    category      varchar(50),
+    investment    double precision,
+    beneficiaries integer,
+    status        varchar(30),
+    progress      integer,
+    start_year    integer,
+    end_year      integer,
+    lead_unit     varchar(120),
+    description   varchar(500),
+    impact_score  double precision,
+    primary key (project_id),
+    constraint fk_project_county foreign key (county_id) references poverty_county (county_id)
+);
+
+create table role (
+    role_id   bigint       not null auto_increment,
+    role_name varchar(255) not null,
+    primary key (role_id),
+    constraint uk_role_name unique (role_name)
+);
+
+create table sys_user (
+    user_id       bigint       not null auto_increment,
+    username      varchar(255) not null,
+    password_hash varchar(255) not null,
+    role_id       bigint,
+    fullname      varchar(255),
+    email         varchar(255),
+    primary key (user_id),
+    constraint uk_user_username unique (username),
+    constraint fk_user_role foreign key (role_id) references role (role_id)
+);
+
+create table alert_rule (
+    rule_id        bigint not null auto_increment,
+    rule_name      varchar(255),
+    metric_key     varchar(255),
+    comparator     varchar(255),
+    threshold      double precision,
+    duration_years integer,
+    enabled        boolean,
+    primary key (rule_id)
+);
+
+create table alert_event (
+    event_id        bigint not null auto_increment,
+    rule_id         bigint,
+    county_id       bigint,
+    year            integer,
+    metric_value    double precision,
+    triggered_at    timestamp(6),
+    acknowledged_by bigint,
+    acknowledged_at timestamp(6),
+    primary key (event_id),
+    constraint fk_alert_event_rule foreign key (rule_id) references alert_rule (rule_id),
+    constraint fk_alert_event_county foreign key (county_id) references poverty_county (county_id)
+);
+
+create table audit_log (
+    audit_id    bigint not null auto_increment,
+    user_id     bigint,
+    action      varchar(255),
+    target_type varchar(255),
+    target_id   varchar(255),
+    details     clob,
+    created_at  timestamp(6),
+    primary key (audit_id)
+);
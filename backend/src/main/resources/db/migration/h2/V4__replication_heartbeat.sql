@@ -0,0 +1,8 @@
+-- 主库定时写入、从库读回，用于估算复制延迟
+create table replication_heartbeat (
+    id          integer not null,
+    beat_millis bigint  not null,
+    primary key (id)
+);
+
+insert into replication_heartbeat (id, beat_millis) values (1, 0);
@@ -0,0 +1,15 @@
+-- 每个 (规则, 县, 年) 只保留一条预警事件：优先保留已确认的最早一条，否则保留最新一条
+delete from alert_event
+where rule_id is not null and county_id is not null and year is not null
+  and event_id not in (
+      select keep_id from (
+          select coalesce(min(case when acknowledged_at is not null then event_id end), max(event_id)) as keep_id
+          from alert_event
+          where rule_id is not null and county_id is not null and year is not null
+          group by rule_id, county_id, year
+      ) kept
+  );
+
+-- 扫描按该键 upsert；先建唯一键再删旧索引，外键 rule_id 始终有可用索引
+alter table alert_event add constraint uk_alert_event_rule_county_year unique (rule_id, county_id, year);
+drop index idx_alert_event_rule_county_year;
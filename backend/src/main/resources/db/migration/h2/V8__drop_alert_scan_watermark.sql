@@ -0,0 +1,2 @@
+-- 增量扫描按变更日志本身判断待处理项，不再使用 change_id 水位线
+drop table alert_scan_watermark;
@@ -0,0 +1,19 @@
+-- 按实际查询补充二级索引；按县取年份序列的 (county_id, year) 由 V7 的唯一键 uk_indicator_county_year 提供
+
+-- 按年份取全部县的指标（findByYear、按年聚合、看板年度对比）
+create index idx_indicator_year_county on economic_indicator (year, county_id);
+
+-- 按省筛选县列表；附带名称与等级，列表查询只读索引即可
+create index idx_county_province_list on poverty_county (province_id, county_id, county_name, poverty_level);
+
+-- 已摘帽县计数
+create index idx_county_delisting_year on poverty_county (delisting_year);
+
+-- 县详情与批量详情按县取项目
+create index idx_project_county on county_project (county_id, category, status);
+
+-- 未确认预警（acknowledged_by is null）按触发时间列出
+create index idx_alert_event_acknowledged on alert_event (acknowledged_by, triggered_at);
+
+-- 预警扫描按 (规则, 县, 年) 查找已有事件
+create index idx_alert_event_rule_county_year on alert_event (rule_id, county_id, year);
@@ -0,0 +1,18 @@
+-- 指标或规则变更时记录受影响的县/规则，增量扫描只重新评估这些组合
+create table alert_change_log (
+    change_id  bigint not null auto_increment,
+    county_id  bigint,
+    rule_id    bigint,
+    changed_at datetime(6) not null,
+    primary key (change_id)
+) engine = InnoDB default charset = utf8mb4;
+
+-- 上次扫描已处理到的 change_id
+create table alert_scan_watermark (
+    id             integer not null,
+    last_change_id bigint  not null,
+    scanned_at     datetime(6),
+    primary key (id)
+) engine = InnoDB default charset = utf8mb4;
+
+insert into alert_scan_watermark (id, last_change_id) values (1, 0);
@@ -0,0 +1,33 @@
+-- 基线之后由实体新增、但 baseline-on-migrate 的已有库不会得到的对象
+
+-- 项目汇总表，由 ProjectRollupService 维护；启动时为空则按 county_project 重建
+create table county_project_rollup (
+    id             bigint      not null auto_increment,
+    county_id      bigint      not null,
+    category       varchar(50) not null,
+    status         varchar(30) not null,
+    project_count  integer     not null,
+    investment     double      not null,
+    beneficiaries  bigint      not null,
+    primary key (id),
+    constraint uk_rollup_county_category_status unique (county_id, category, status)
+) engine = InnoDB default charset = utf8mb4;
+
+-- 每个 (县, 年) 只保留最新写入的一条指标，再加唯一键供导入 upsert 使用
+delete from economic_indicator
+where county_id is not null and year is not null
+  and id not in (
+      select keep_id from (
+          select max(id) as keep_id
+          from economic_indicator
+          where county_id is not null and year is not null
+          group by county_id, year
+      ) kept
+  );
+
+alter table economic_indicator add constraint uk_indicator_county_year unique (county_id, year);
+
+-- 全国项目列表与组合统计的筛选条件
+create index idx_project_category_status on county_project (category, status);
+create index idx_project_start_year on county_project (start_year);
+create index idx_project_lead_unit on county_project (lead_unit);
@@ -0,0 +1,112 @@
+package com.example.poverty;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the application {@link DataSource} so a test can capture the SQL and bind values of every
+ * prepared statement the code under test executes, whether issued by Hibernate or by JdbcTemplate.
+ * Register it with {@code @Import(SqlRecorder.class)}; nothing is recorded outside {@link #record}.
+ * <p>
+ * Recording covers every thread (alert scans run their partitions on an executor), so callers should
+ * filter the result by the table they are interested in.
+ */
+public class SqlRecorder implements BeanPostProcessor {
+
+    /**
+     * One executed statement with its parameters in bind order ({@code null} for SQL NULL).
+     */
+    public record Statement(String sql, List<Object> parameters) {}
+
+    private static volatile List<Statement> recording;
+
+    /**
+     * Runs {@code action} and returns the statements executed meanwhile, in order.
+     */
+    public static List<Statement> record(Runnable action) {
+        return record(() -> {
+            action.run();
+            return null;
+        }).statements();
+    }
+
+    public static synchronized <T> Recorded<T> record(Supplier<T> action) {
+        List<Statement> statements = Collections.synchronizedList(new ArrayList<>());
+        recording = statements;
+        try {
+            T result = action.get();
+            synchronized (statements) {
+                return new Recorded<>(result, List.copyOf(statements));
+            }
+        } finally {
+            recording = null;
+        }
+    }
+
+    public record Recorded<T>(T result, List<Statement> statements) {}
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, (proxy, method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                return result instanceof Connection connection ? connection(connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    private static Connection connection(Connection target) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                return preparedStatement(statement, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private static PreparedStatement preparedStatement(PreparedStatement target, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.startsWith("execute") || name.equals("addBatch")) {
+                List<Statement> statements = recording;
+                if (statements != null) {
+                    statements.add(new Statement(sql, new ArrayList<>(parameters.values())));
+                }
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlRecorder.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
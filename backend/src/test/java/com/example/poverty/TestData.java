@@ -0,0 +1,56 @@
+package com.example.poverty;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * A small, deterministic data set shared by the integration tests: three provinces with four counties
+ * each, indicators for 2018-2022 and two projects per county. Seeding is skipped when counties exist,
+ * so test classes sharing the in-memory database see the same rows.
+ */
+public final class TestData {
+
+    public static final int PROVINCES = 3;
+    public static final int COUNTIES_PER_PROVINCE = 4;
+    public static final int FIRST_YEAR = 2018;
+    public static final int LAST_YEAR = 2022;
+
+    private TestData() {
+    }
+
+    public static synchronized void seed(JdbcTemplate jdbcTemplate) {
+        Integer counties = jdbcTemplate.queryForObject("select count(*) from poverty_county", Integer.class);
+        if (counties != null && counties > 0) {
+            return;
+        }
+        for (int p = 1; p <= PROVINCES; p++) {
+            jdbcTemplate.update("insert into province (province_id, province_name) values (?, ?)",
+                    (long) p, "测试省" + p);
+            for (int c = 1; c <= COUNTIES_PER_PROVINCE; c++) {
+                long countyId = countyId(p, c);
+                jdbcTemplate.update("insert into poverty_county (county_id, county_name, province_id, delisting_year, " +
+                                "poverty_level, main_industries, total_investment) values (?, ?, ?, ?, ?, ?, ?)",
+                        countyId, "测试省" + p + "县" + c, (long) p, 2018 + c, "重点", "特色种植", 0.0);
+                for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+                    int step = year - FIRST_YEAR;
+                    jdbcTemplate.update("insert into economic_indicator (county_id, year, gdp, gdp_yoy, gdp_per_capita, " +
+                                    "rural_disposable_income, rural_income_yoy, fiscal_revenue, fiscal_revenue_yoy, " +
+                                    "poverty_rate) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                            countyId, year, 20.0 + countyId + step, 6.5, 25000.0 + 500 * step,
+                            9000.0 + 400 * step, 8.0, 3.0 + step * 0.2, 5.0, Math.max(0.5, 12.0 - 2 * step - c));
+                }
+                for (int j = 1; j <= 2; j++) {
+                    jdbcTemplate.update("insert into county_project (county_id, project_name, category, investment, " +
+                                    "beneficiaries, status, progress, start_year, end_year, lead_unit) " +
+                                    "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                            countyId, "项目" + countyId + "-" + j, j == 1 ? "产业发展" : "基础设施",
+                            1.5 * j, 1000 * j, j == 1 ? "进行中" : "已完成", j == 1 ? 60 : 100,
+                            2019, 2022, "县农业农村局");
+                }
+            }
+        }
+    }
+
+    public static long countyId(int province, int county) {
+        return (long) (province - 1) * COUNTIES_PER_PROVINCE + county;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.poverty.benchmark;
+
+import com.example.poverty.controller.CountyController.CountyDetail;
+import com.example.poverty.controller.CountyController.CountySummary;
+import com.example.poverty.controller.CountyController.IndicatorPoint;
+import com.example.poverty.controller.CountyController.Kpi;
+import com.example.poverty.controller.CountyController.LatestIndicator;
+import com.example.poverty.controller.CountyController.ProjectOverview;
+import com.example.poverty.model.CountyProject;
+import com.example.poverty.model.EconomicIndicator;
+import com.example.poverty.service.DashboardService.AnalysisSections;
+import com.example.poverty.service.DashboardService.ChartsData;
+import com.example.poverty.service.DashboardService.CountyComparison;
+import com.example.poverty.service.DashboardService.HeatmapCell;
+import com.example.poverty.service.DashboardService.IncomeTrend;
+import com.example.poverty.service.DashboardService.PolicyEffect;
+import com.example.poverty.service.DashboardService.PolicyMetric;
+import com.example.poverty.service.DashboardService.PovertyDistribution;
+import com.example.poverty.service.DashboardService.RegionDistribution;
+import com.example.poverty.service.DashboardService.Summary;
+import com.example.poverty.service.DashboardService.TrendSeries;
+import com.example.poverty.service.DashboardService.YearComparison;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Serialises the dashboard summary, charts, analysis sections and a county detail with the ObjectMapper
+ * Spring Boot builds, with and without the Blackbird module registered by {@code JacksonConfig}. Not part
+ * of {@code mvn test}; after {@code mvn test-compile} run {@link #main} with the test classpath, e.g.
+ * {@code mvn exec:java -Dexec.classpathScope=test -Dexec.mainClass=<this class>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    private static final List<Integer> YEARS = List.of(2018, 2019, 2020, 2021, 2022);
+    private static final List<String> PROVINCES = List.of("云南省", "贵州省", "四川省", "甘肃省", "陕西省",
+            "河北省", "山西省", "内蒙古自治区", "辽宁省", "吉林省", "黑龙江省", "安徽省", "江西省", "河南省",
+            "湖北省", "湖南省", "广西壮族自治区", "海南省", "重庆市", "青海省", "宁夏回族自治区",
+            "新疆维吾尔自治区", "西藏自治区");
+
+    @Param({"plain", "blackbird"})
+    public String mapper;
+
+    private ObjectMapper objectMapper;
+    private Summary summary;
+    private ChartsData charts;
+    private AnalysisSections analysis;
+    private CountyDetail countyDetail;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (mapper.equals("blackbird")) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        objectMapper = builder.build();
+        summary = new Summary(832, 815, 97.96, 12450.5, 2.35, 13280, 48215.7);
+        charts = buildCharts();
+        analysis = buildAnalysis();
+        countyDetail = buildCountyDetail();
+    }
+
+    @Benchmark
+    public byte[] summary() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public byte[] charts() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(charts);
+    }
+
+    @Benchmark
+    public byte[] analysis() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(analysis);
+    }
+
+    @Benchmark
+    public byte[] countyDetail() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(countyDetail);
+    }
+
+    private static ChartsData buildCharts() {
+        return new ChartsData(
+                new PovertyDistribution(List.of("<2%", "2%-5%", "5%-10%", ">10%"), List.of(402L, 288L, 109L, 33L)),
+                new IncomeTrend(YEARS, List.of(9120L, 10050L, 11230L, 12410L, 13280L)),
+                new RegionDistribution(PROVINCES, PROVINCES.stream().map(name -> (long) name.length() * 9).toList()));
+    }
+
+    private static AnalysisSections buildAnalysis() {
+        List<Double> byYear = List.of(8.4, 5.1, 2.9, 1.8, 1.2);
+        List<String> counties = IntStream.rangeClosed(1, 20).mapToObj(i -> "示例县" + i).toList();
+        List<Double> values = IntStream.rangeClosed(1, 20).mapToObj(i -> 35.5 + i * 1.25).toList();
+        Map<String, Long> timings = new TreeMap<>(Map.of("yearComparison", 2L, "trendSeries", 3L,
+                "countyComparison", 4L, "heatmap", 2L, "policyEffect", 1L));
+        return new AnalysisSections(
+                new YearComparison(YEARS, byYear, List.of(9120.0, 10050.0, 11230.0, 12410.0, 13280.0)),
+                new TrendSeries(YEARS, byYear, List.of(9120.0, 10050.0, 11230.0, 12410.0, 13280.0),
+                        List.of(38.2, 41.5, 44.1, 47.9, 51.3)),
+                new CountyComparison(counties, values, values, values),
+                PROVINCES.stream().map(name -> new HeatmapCell(name, name.length() * 1.5, "特色种植")).toList(),
+                new PolicyEffect(2018, 2022, List.of(
+                        new PolicyMetric("povertyRate", 8.4, 1.2, -85.7),
+                        new PolicyMetric("ruralDisposableIncome", 9120.0, 13280.0, 45.6),
+                        new PolicyMetric("gdp", 38.2, 51.3, 34.3))),
+                timings,
+                List.of());
+    }
+
+    private static CountyDetail buildCountyDetail() {
+        List<EconomicIndicator> indicators = new ArrayList<>();
+        for (int i = 0; i < YEARS.size(); i++) {
+            EconomicIndicator indicator = new EconomicIndicator();
+            indicator.setId((long) i + 1);
+            indicator.setYear(YEARS.get(i));
+            indicator.setGdp(38.2 + i * 3.1);
+            indicator.setGdpYoy(6.5);
+            indicator.setGdpPerCapita(25000.0 + i * 500);
+            indicator.setRuralDisposableIncome(9120.0 + i * 1040);
+            indicator.setRuralIncomeYoy(8.0);
+            indicator.setFiscalRevenue(3.0 + i * 0.2);
+            indicator.setFiscalRevenueYoy(5.0);
+            indicator.setPovertyRate(8.4 - i * 1.8);
+            indicators.add(indicator);
+        }
+        List<CountyProject> projects = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            CountyProject project = new CountyProject();
+            project.setProjectId((long) i);
+            project.setProjectName("示例项目" + i);
+            project.setCategory(i % 2 == 0 ? "基础设施" : "产业扶贫");
+            project.setInvestment(1.5 * i);
+            project.setBeneficiaries(1000 * i);
+            project.setStatus(i % 3 == 0 ? "已完成" : "进行中");
+            project.setProgress(i % 3 == 0 ? 100 : 60);
+            project.setStartYear(2019);
+            project.setEndYear(2022);
+            project.setLeadUnit("县乡村振兴局");
+            project.setImpactScore(7.5);
+            projects.add(project);
+        }
+        EconomicIndicator latest = indicators.get(indicators.size() - 1);
+        CountySummary county = new CountySummary(1L, "示例县", "云南省", 1L, "Ⅰ类重点县", 28.6, 3120.5, 2020,
+                "2020-12-31", 12500, 46800, "特色种植", "控辍保学", projects.size(), 4, 52000, 42.0,
+                new LatestIndicator(latest.getGdp(), latest.getRuralDisposableIncome(), latest.getGdpPerCapita(),
+                        latest.getPovertyRate(), latest.getFiscalRevenue(), latest.getGdpYoy()));
+        List<IndicatorPoint> trend = indicators.stream()
+                .map(i -> new IndicatorPoint(i.getYear(), i.getGdp(), i.getPovertyRate(),
+                        i.getRuralDisposableIncome(), i.getGdpPerCapita(), i.getGdpYoy(), i.getFiscalRevenue()))
+                .toList();
+        return new CountyDetail(county, new Kpi(98.5, 6.5, 91.2, latest.getPovertyRate()),
+                new ProjectOverview(projects.size(), 54.0, 36000, 52000), projects, indicators, trend);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResponseSerializationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.poverty.controller;
+
+import com.example.poverty.TestData;
+import com.example.poverty.service.ProjectRollupService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regression guard for the N+1 fixed with entity graphs: county list, detail and indicator reads,
+ * serialized to JSON like a response, issue a fixed number of statements however many counties,
+ * indicators and projects they return. Second-level and query caches are cleared first so every read
+ * reaches the database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CountyReadQueryCountTest {
+
+    private static final int COUNTIES = TestData.PROVINCES * TestData.COUNTIES_PER_PROVINCE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ProjectRollupService rollupService;
+    @Autowired
+    private CountyController countyController;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        TestData.seed(jdbcTemplate);
+        rollupService.rebuildIfEmpty();
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void countyListLoadsProvincesWithCounties() {
+        long statements = statementsFor(() -> countyController.list(null, null, null, null, null, null, null,
+                null, null).getBody());
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void provinceCountyListIsOneQuery() {
+        long statements = statementsFor(() -> countyController.list(1L, null, null, null, null, null, null,
+                null, null).getBody());
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void countyDetailDoesNotQueryPerIndicatorOrProject() {
+        long statements = statementsFor(() -> countyController.getCountyDetail(TestData.countyId(1, 1),
+                new ServletWebRequest(new MockHttpServletRequest())).getBody());
+
+        // 县（含省份）、指标、项目、项目汇总各一条
+        assertThat(statements).isEqualTo(4);
+    }
+
+    @Test
+    void batchDetailsCostTheSameAsOneCounty() {
+        List<Long> ids = LongStream.rangeClosed(1, COUNTIES).boxed().toList();
+
+        long statements = statementsFor(() -> countyController.getCountyDetails(ids));
+
+        assertThat(statements).isEqualTo(4);
+    }
+
+    @Test
+    void indicatorReadsFetchCountyAndProvinceInTheSameQuery() {
+        long statements = statementsFor(() -> countyController.getIndicators(TestData.countyId(2, 3),
+                TestData.FIRST_YEAR, TestData.LAST_YEAR));
+
+        // 县一条、指标一条；序列化指标上的县与省份不再触发查询
+        assertThat(statements).isEqualTo(2);
+    }
+
+    private long statementsFor(Supplier<Object> read) {
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                objectMapper.writeValueAsString(read.get());
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        return statistics.getPrepareStatementCount();
+    }
+}
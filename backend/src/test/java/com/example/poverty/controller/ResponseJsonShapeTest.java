@@ -0,0 +1,137 @@
+package com.example.poverty.controller;
+
+import com.example.poverty.TestData;
+import com.example.poverty.service.DashboardService;
+import com.example.poverty.service.IndicatorColumnStore;
+import com.example.poverty.service.ProjectRollupService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the JSON field names of the dashboard and county detail responses. They used to be built as
+ * {@code HashMap}s with literal keys; now that they are records, renaming a component would rename the
+ * field the frontend reads, so every object is compared against the old key set.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ResponseJsonShapeTest {
+
+    private static final int YEAR = TestData.LAST_YEAR;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private IndicatorColumnStore indicatorStore;
+    @Autowired
+    private ProjectRollupService rollupService;
+    @Autowired
+    private DashboardService dashboardService;
+    @Autowired
+    private CountyController countyController;
+
+    @BeforeEach
+    void setUp() {
+        TestData.seed(jdbcTemplate);
+        indicatorStore.reload();
+        rollupService.rebuildIfEmpty();
+    }
+
+    @Test
+    void summaryFields() {
+        JsonNode summary = json(() -> dashboardService.getSummary(YEAR));
+
+        assertThat(fieldNames(summary)).containsExactlyInAnyOrder("totalCounties", "delistedCounties",
+                "coverageRate", "funding", "avgPovertyRate", "avgRuralIncome", "totalGDP");
+    }
+
+    @Test
+    void chartsFields() {
+        JsonNode charts = json(() -> dashboardService.getChartsData(YEAR));
+
+        assertThat(fieldNames(charts)).containsExactlyInAnyOrder("povertyDistribution", "incomeTrend",
+                "regionDistribution");
+        assertThat(fieldNames(charts.get("povertyDistribution"))).containsExactlyInAnyOrder("categories", "data");
+        assertThat(fieldNames(charts.get("incomeTrend"))).containsExactlyInAnyOrder("years", "income");
+        assertThat(fieldNames(charts.get("regionDistribution"))).containsExactlyInAnyOrder("regions", "counts");
+    }
+
+    @Test
+    void analysisSectionFields() {
+        JsonNode analysis = json(() -> dashboardService.getAnalysisData(YEAR));
+
+        // 全部分区成功时不输出 failedSections
+        assertThat(fieldNames(analysis)).containsExactlyInAnyOrder("yearComparison", "trendSeries",
+                "countyComparison", "heatmap", "policyEffect", "sectionTimings");
+        assertThat(fieldNames(analysis.get("yearComparison")))
+                .containsExactlyInAnyOrder("years", "avgPovertyRate", "avgIncome");
+        assertThat(fieldNames(analysis.get("trendSeries")))
+                .containsExactlyInAnyOrder("years", "povertyRate", "income", "gdp");
+        assertThat(fieldNames(analysis.get("countyComparison")))
+                .containsExactlyInAnyOrder("counties", "gdp", "income", "fiscal");
+        assertThat(analysis.get("heatmap")).isNotEmpty();
+        assertThat(fieldNames(analysis.get("heatmap").get(0))).containsExactlyInAnyOrder("name", "value", "industry");
+        JsonNode policyEffect = analysis.get("policyEffect");
+        assertThat(fieldNames(policyEffect)).containsExactlyInAnyOrder("baselineYear", "currentYear", "metrics");
+        assertThat(policyEffect.get("metrics")).isNotEmpty();
+        assertThat(fieldNames(policyEffect.get("metrics").get(0)))
+                .containsExactlyInAnyOrder("metric", "before", "after", "change");
+    }
+
+    @Test
+    void countyDetailFields() {
+        JsonNode detail = json(() -> countyController.getCountyDetail(TestData.countyId(1, 1),
+                new ServletWebRequest(new MockHttpServletRequest())).getBody());
+
+        assertThat(fieldNames(detail)).containsExactlyInAnyOrder("county", "kpis", "projectOverview",
+                "projects", "indicators", "indicatorTrend");
+        // 最新年度指标平铺在 county 中
+        assertThat(fieldNames(detail.get("county"))).containsExactlyInAnyOrder("countyId", "countyName",
+                "province", "provinceId", "povertyLevel", "population", "area", "delistingYear",
+                "delistingDate", "delistedHouseholds", "delistedPopulation", "mainIndustries",
+                "educationSupport", "supportProjects", "industrialProjects", "coveragePopulation",
+                "totalInvestment", "gdp", "incomePerCapita", "gdpPerCapita", "povertyRate", "fiscalRevenue",
+                "gdpYoy");
+        assertThat(fieldNames(detail.get("kpis"))).containsExactlyInAnyOrder("povertyAlleviationRate",
+                "economicGrowthRate", "employmentRate", "povertyRate");
+        assertThat(fieldNames(detail.get("projectOverview"))).containsExactlyInAnyOrder("projectCount",
+                "totalInvestment", "totalBeneficiaries", "coveragePopulation");
+        assertThat(detail.get("indicatorTrend")).isNotEmpty();
+        assertThat(fieldNames(detail.get("indicatorTrend").get(0))).containsExactlyInAnyOrder("year", "gdp",
+                "povertyRate", "ruralDisposableIncome", "gdpPerCapita", "gdpYoy", "fiscalRevenue");
+    }
+
+    private JsonNode json(Supplier<Object> read) {
+        return transactionTemplate.execute(status -> {
+            try {
+                return objectMapper.readTree(objectMapper.writeValueAsString(read.get()));
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+    }
+
+    private List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
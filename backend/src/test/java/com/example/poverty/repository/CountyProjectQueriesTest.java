@@ -0,0 +1,86 @@
+package com.example.poverty.repository;
+
+import com.example.poverty.TestData;
+import com.example.poverty.repository.CountyProjectRepository.PortfolioCell;
+import com.example.poverty.repository.CountyProjectRepository.ProjectListItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CountyProjectQueriesTest {
+
+    private static final int COUNTIES = TestData.PROVINCES * TestData.COUNTIES_PER_PROVINCE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CountyProjectRepository projectRepo;
+
+    @BeforeEach
+    void setUp() {
+        TestData.seed(jdbcTemplate);
+    }
+
+    @Test
+    void searchWithoutFiltersPagesEveryProject() {
+        Page<ProjectListItem> page = projectRepo.search(null, null, null, null, null, null,
+                PageRequest.of(1, 5, Sort.by(Sort.Direction.DESC, "investment").and(Sort.by("projectId"))));
+
+        assertThat(page.getTotalElements()).isEqualTo(2L * COUNTIES);
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(page.getContent()).allSatisfy(item -> {
+            assertThat(item.countyName()).isNotNull();
+            assertThat(item.provinceName()).isNotNull();
+        });
+    }
+
+    @Test
+    void searchAppliesOnlyTheGivenFilters() {
+        Page<ProjectListItem> page = projectRepo.search("产业发展", "进行中", null, 2L, null, null,
+                PageRequest.of(0, 50, Sort.by("projectId")));
+
+        assertThat(page.getTotalElements()).isEqualTo(TestData.COUNTIES_PER_PROVINCE);
+        assertThat(page.getContent()).allSatisfy(item -> {
+            assertThat(item.category()).isEqualTo("产业发展");
+            assertThat(item.status()).isEqualTo("进行中");
+            assertThat(item.provinceId()).isEqualTo(2L);
+        });
+    }
+
+    @Test
+    void yearFiltersSelectOverlappingProjects() {
+        assertThat(projectRepo.search(null, null, null, null, 2023, null, PageRequest.of(0, 10))
+                .getTotalElements()).isZero();
+        assertThat(projectRepo.search(null, null, null, null, null, 2018, PageRequest.of(0, 10))
+                .getTotalElements()).isZero();
+        assertThat(projectRepo.search(null, null, null, null, 2020, 2021, PageRequest.of(0, 10))
+                .getTotalElements()).isEqualTo(2L * COUNTIES);
+    }
+
+    @Test
+    void aggregateGroupsFilteredProjects() {
+        List<PortfolioCell> cells = projectRepo.aggregate(null, null, "县农业农村局", null, null, null);
+
+        // 两个类别 × 三个省，起始年份相同
+        assertThat(cells).hasSize(2 * TestData.PROVINCES);
+        assertThat(cells.stream().mapToLong(PortfolioCell::projectCount).sum()).isEqualTo(2L * COUNTIES);
+        assertThat(projectRepo.aggregate("基础设施", "已完成", null, 1L, null, null))
+                .singleElement()
+                .satisfies(cell -> {
+                    assertThat(cell.projectCount()).isEqualTo(TestData.COUNTIES_PER_PROVINCE);
+                    assertThat(cell.beneficiaries()).isEqualTo(2000L * TestData.COUNTIES_PER_PROVINCE);
+                });
+    }
+}
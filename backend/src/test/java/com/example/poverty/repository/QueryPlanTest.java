@@ -0,0 +1,197 @@
+package com.example.poverty.repository;
+
+import com.example.poverty.SqlRecorder;
+import com.example.poverty.TestData;
+import com.example.poverty.model.PovertyCounty;
+import com.example.poverty.service.AlertScannerService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs each filtering repository method (and the alert scanner's stored-event lookup), captures the SQL
+ * and bind values actually sent to the database, and EXPLAINs that statement against the migrated H2
+ * schema: the plan must read one of the expected indexes instead of scanning the table. The H2 and MySQL
+ * migrations define the same indexes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(SqlRecorder.class)
+class QueryPlanTest {
+
+    private static final PageRequest PROJECT_PAGE =
+            PageRequest.of(0, 20, Sort.by("investment").and(Sort.by("projectId")));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private EconomicIndicatorRepository indicatorRepo;
+    @Autowired
+    private PovertyCountyRepository countyRepo;
+    @Autowired
+    private CountyProjectRepository projectRepo;
+    @Autowired
+    private CountyProjectRollupRepository rollupRepo;
+    @Autowired
+    private AlertEventRepository alertEventRepo;
+    @Autowired
+    private RoleRepository roleRepo;
+    @Autowired
+    private SysUserRepository userRepo;
+    @Autowired
+    private AlertScannerService scannerService;
+
+    record QueryCase(String method, String table, Consumer<QueryPlanTest> call, String... indexes) {
+        @Override
+        public String toString() {
+            return method;
+        }
+    }
+
+    static Stream<QueryCase> repositoryQueries() {
+        return Stream.of(
+                query("EconomicIndicatorRepository.findByYear", "economic_indicator",
+                        t -> t.indicatorRepo.findByYear(2020),
+                        "idx_indicator_year_county"),
+                query("EconomicIndicatorRepository.aggregateByYears", "economic_indicator",
+                        t -> t.indicatorRepo.aggregateByYears(List.of(2019, 2020)),
+                        "idx_indicator_year_county"),
+                query("EconomicIndicatorRepository.findByCounty_OrderByYearAsc", "economic_indicator",
+                        t -> t.indicatorRepo.findByCounty_OrderByYearAsc(t.county(1L)),
+                        "uk_indicator_county_year", "fk_indicator_county"),
+                query("EconomicIndicatorRepository.findByCountyAndYearBetweenOrderByYearAsc", "economic_indicator",
+                        t -> t.indicatorRepo.findByCountyAndYearBetweenOrderByYearAsc(t.county(1L), 2018, 2022),
+                        "uk_indicator_county_year", "fk_indicator_county"),
+                query("EconomicIndicatorRepository.findByCounty_CountyIdInOrderByYearAsc", "economic_indicator",
+                        t -> t.indicatorRepo.findByCounty_CountyIdInOrderByYearAsc(List.of(1L, 2L, 3L)),
+                        "uk_indicator_county_year", "fk_indicator_county"),
+                query("EconomicIndicatorRepository.streamValuesOrderByCountyAndYear", "economic_indicator",
+                        t -> {
+                            try (Stream<?> rows = t.indicatorRepo.streamValuesOrderByCountyAndYear(1, 100)) {
+                                rows.forEach(row -> { });
+                            }
+                        },
+                        "uk_indicator_county_year", "fk_indicator_county"),
+                query("EconomicIndicatorRepository.streamValuesForCountiesOrderByCountyAndYear", "economic_indicator",
+                        t -> {
+                            try (Stream<?> rows = t.indicatorRepo.streamValuesForCountiesOrderByCountyAndYear(
+                                    List.of(1L, 2L))) {
+                                rows.forEach(row -> { });
+                            }
+                        },
+                        "uk_indicator_county_year", "fk_indicator_county"),
+                query("PovertyCountyRepository.findByProvince_ProvinceId", "poverty_county",
+                        t -> t.countyRepo.findByProvince_ProvinceId(1L),
+                        "idx_county_province_list", "fk_county_province"),
+                query("PovertyCountyRepository.findListItemsByProvinceId", "poverty_county",
+                        t -> t.countyRepo.findListItemsByProvinceId(1L),
+                        "idx_county_province_list", "fk_county_province"),
+                query("PovertyCountyRepository.countByDelistingYearLessThanEqual", "poverty_county",
+                        t -> t.countyRepo.countByDelistingYearLessThanEqual(2020),
+                        "idx_county_delisting_year"),
+                query("CountyProjectRepository.findByCounty_CountyId", "county_project",
+                        t -> t.projectRepo.findByCounty_CountyId(1L),
+                        "idx_project_county", "fk_project_county"),
+                query("CountyProjectRepository.search (category, status)", "county_project",
+                        t -> t.projectRepo.search("产业发展", "进行中", null, null, null, null, PROJECT_PAGE),
+                        "idx_project_category_status"),
+                query("CountyProjectRepository.search (leadUnit)", "county_project",
+                        t -> t.projectRepo.search(null, null, "县农业农村局", null, null, null, PROJECT_PAGE),
+                        "idx_project_lead_unit"),
+                query("CountyProjectRepository.search (toYear)", "county_project",
+                        t -> t.projectRepo.search(null, null, null, null, null, 2019, PROJECT_PAGE),
+                        "idx_project_start_year"),
+                query("CountyProjectRepository.aggregate (category, status)", "county_project",
+                        t -> t.projectRepo.aggregate("产业发展", "进行中", null, null, null, null),
+                        "idx_project_category_status"),
+                query("CountyProjectRollupRepository.findByCountyId", "county_project_rollup",
+                        t -> t.rollupRepo.findByCountyId(1L),
+                        "uk_rollup_county_category_status"),
+                query("AlertEventRepository.findByAcknowledgedByIsNull", "alert_event",
+                        t -> t.alertEventRepo.findByAcknowledgedByIsNull(),
+                        "idx_alert_event_acknowledged"),
+                query("AlertScannerService stored events", "alert_event",
+                        t -> t.scannerService.scanAllRules(),
+                        "uk_alert_event_rule_county_year", "fk_alert_event_county", "fk_alert_event_rule"),
+                query("RoleRepository.findByRoleName", "role",
+                        t -> t.roleRepo.findByRoleName("ADMIN"),
+                        "uk_role_name"),
+                query("SysUserRepository.findByUsername", "sys_user",
+                        t -> t.userRepo.findByUsername("admin"),
+                        "uk_user_username"));
+    }
+
+    private static QueryCase query(String method, String table, Consumer<QueryPlanTest> call, String... indexes) {
+        return new QueryCase(method, table, call, indexes);
+    }
+
+    @BeforeEach
+    void setUp() {
+        TestData.seed(jdbcTemplate);
+        // 扫描器只为启用的规则查询已存储事件；该规则永不命中，不会产生事件
+        Integer probes = jdbcTemplate.queryForObject(
+                "select count(*) from alert_rule where rule_name = '执行计划探测'", Integer.class);
+        if (probes == null || probes == 0) {
+            jdbcTemplate.update("insert into alert_rule (rule_name, metric_key, comparator, threshold, " +
+                    "duration_years, enabled) values ('执行计划探测', 'gdp', 'gt', 1e12, 1, true)");
+        }
+        // 命中二级缓存或查询缓存时不会发出 SQL
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void usesIndex(QueryCase query) {
+        List<SqlRecorder.Statement> statements = SqlRecorder.record(() ->
+                transactionTemplate.executeWithoutResult(status -> query.call().accept(this)));
+        SqlRecorder.Statement statement = statements.stream()
+                .filter(s -> {
+                    String sql = s.sql().toLowerCase(Locale.ROOT);
+                    return sql.startsWith("select") && sql.contains(" from " + query.table() + " ");
+                })
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(query.method() + " issued no select on " + query.table()
+                        + ": " + statements));
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("explain " + statement.sql(), String.class,
+                        statement.parameters().toArray()))
+                .toLowerCase(Locale.ROOT);
+
+        assertThat(plan).as("%s plan for%n%s", query.method(), statement.sql())
+                .doesNotContain("." + query.table() + ".tablescan");
+        assertThat(Arrays.stream(query.indexes()).anyMatch(plan::contains))
+                .as("%s should use one of %s, SQL was:%n%s%nplan was:%n%s", query.method(),
+                        Arrays.toString(query.indexes()), statement.sql(), plan)
+                .isTrue();
+    }
+
+    private PovertyCounty county(Long countyId) {
+        return entityManager.getReference(PovertyCounty.class, countyId);
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.poverty.service;
+
+import com.example.poverty.SqlRecorder;
+import com.example.poverty.TestData;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Alert scans against the seeded H2 data. Indicator gdp is {@code 20 + countyId + (year - 2018)}, so in
+ * 2022 a {@code gdp > 30} rule matches counties 7-12 and {@code gdp > 0} matches all of them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(SqlRecorder.class)
+class AlertScannerServiceTest {
+
+    private static final int COUNTIES = TestData.PROVINCES * TestData.COUNTIES_PER_PROVINCE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private IndicatorColumnStore indicatorStore;
+    @Autowired
+    private AlertScannerService scannerService;
+    @Autowired
+    private AlertScanMonitor scanMonitor;
+    @Autowired
+    private AlertChangeTracker changeTracker;
+
+    @BeforeEach
+    void setUp() {
+        TestData.seed(jdbcTemplate);
+        // 其他测试类共用同一个库，这里只保留本类建的规则
+        jdbcTemplate.update("delete from alert_event");
+        jdbcTemplate.update("delete from alert_change_log");
+        jdbcTemplate.update("delete from alert_rule");
+        evictCaches();
+        indicatorStore.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from alert_event");
+        // 测试中临时加入的县
+        jdbcTemplate.update("delete from economic_indicator where county_id not between 1 and ?", COUNTIES);
+        jdbcTemplate.update("delete from poverty_county where county_id not between 1 and ?", COUNTIES);
+        jdbcTemplate.update("update economic_indicator set gdp = ? where county_id = 8 and year = ?",
+                20.0 + 8 + TestData.LAST_YEAR - TestData.FIRST_YEAR, TestData.LAST_YEAR);
+        jdbcTemplate.update("delete from alert_change_log");
+        jdbcTemplate.update("delete from alert_rule");
+        evictCaches();
+    }
+
+    @Test
+    void fullScanReadsEachPartitionOnceForAllRules() {
+        long lowIncome = rule("收入偏低", "ruralDisposableIncome", "lt", 11000.0, 2);
+        long highGdp = rule("GDP偏高", "gdp", "gt", 30.0, 1);
+
+        List<SqlRecorder.Statement> statements = SqlRecorder.record(scannerService::scanAllRules);
+
+        AlertScanMonitor.ScanStatus status = scanMonitor.currentStatus();
+        assertThat(status.state()).isEqualTo("COMPLETED");
+        // 每个分区一条有序的指标查询，与规则数无关
+        List<String> indicatorReads = selectsFrom(statements, "economic_indicator");
+        assertThat(indicatorReads).hasSize(status.partitions().size());
+        assertThat(indicatorReads).allSatisfy(sql ->
+                assertThat(sql).containsPattern("order by \\w+\\.county_id,\\s*\\w+\\.year"));
+        assertThat(status.partitions().stream().mapToInt(AlertScanMonitor.PartitionStatus::countiesScanned).sum())
+                .isEqualTo(COUNTIES);
+        // 每条规则对每个县只产生一条事件，年份为最新一年
+        assertThat(eventCounties(lowIncome)).containsExactlyElementsOf(countyRange(1, COUNTIES));
+        assertThat(eventCounties(highGdp)).containsExactlyElementsOf(countyRange(7, COUNTIES));
+        assertThat(jdbcTemplate.queryForList("select distinct year from alert_event", Integer.class))
+                .containsExactly(TestData.LAST_YEAR);
+    }
+
+    @Test
+    void rangePartitionsCoverEveryCountyId() {
+        rule("GDP偏高", "gdp", "gt", 30.0, 1);
+
+        scannerService.scanAllRules();
+
+        List<AlertScanMonitor.PartitionStatus> partitions = scanMonitor.currentStatus().partitions();
+        assertThat(partitions).isNotEmpty();
+        assertThat(partitions.get(0).firstCountyId()).isEqualTo(Long.MIN_VALUE);
+        assertThat(partitions.get(partitions.size() - 1).lastCountyId()).isEqualTo(Long.MAX_VALUE);
+        for (int i = 1; i < partitions.size(); i++) {
+            assertThat(partitions.get(i).firstCountyId()).isEqualTo(partitions.get(i - 1).lastCountyId() + 1);
+        }
+        assertThat(partitions).allSatisfy(partition -> {
+            assertThat(partition.state()).isEqualTo("COMPLETED");
+            assertThat(partition.countiesScanned()).isEqualTo(partition.countiesTotal());
+        });
+        assertThat(partitions.stream().mapToInt(AlertScanMonitor.PartitionStatus::countiesTotal).sum())
+                .isEqualTo(COUNTIES);
+    }
+
+    @Test
+    void countiesAddedAfterTheStoreLoadedFallIntoTheOuterPartitions() {
+        long highGdp = rule("GDP偏高", "gdp", "gt", 30.0, 1);
+        // 列存储已加载，新县的 id 落在已知范围之外
+        addCounty(0L, 100.0);
+        addCounty(1000L, 100.0);
+
+        scannerService.scanAllRules();
+
+        List<Long> expected = new ArrayList<>(List.of(0L));
+        expected.addAll(countyRange(7, COUNTIES));
+        expected.add(1000L);
+        assertThat(eventCounties(highGdp)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void incrementalScanEvaluatesOnlyTheChangedPairs() {
+        long changedRule = rule("GDP偏高", "gdp", "gt", 30.0, 1);
+        long otherRule = rule("收入偏低", "ruralDisposableIncome", "lt", 11000.0, 2);
+        scannerService.scanAllRules();
+        changeTracker.ruleChanged(changedRule);
+        changeTracker.countiesChanged(List.of(5L, 9L));
+
+        List<SqlRecorder.Statement> statements = SqlRecorder.record(scannerService::scanChanges);
+
+        // 变更规则 × 全部县：按县区间读取，只带变更规则
+        List<SqlRecorder.Statement> rangeReads = statements(statements, "alert_event", " between");
+        assertThat(rangeReads).isNotEmpty().allSatisfy(statement ->
+                assertThat(statement.parameters()).endsWith(changedRule));
+        // 其余规则 × 变更县：按县的 IN 查询，不含变更规则
+        assertThat(statements(statements, "alert_event", " in (")).extracting(SqlRecorder.Statement::parameters)
+                .containsExactlyInAnyOrder(List.<Object>of(5L, otherRule), List.<Object>of(9L, otherRule));
+        assertThat(statements(statements, "economic_indicator", " in (")).extracting(SqlRecorder.Statement::parameters)
+                .containsExactlyInAnyOrder(List.<Object>of(5L), List.<Object>of(9L));
+        assertThat(scanMonitor.currentStatus().state()).isEqualTo("COMPLETED");
+        assertThat(changeTracker.hasPendingChanges()).isFalse();
+    }
+
+    @Test
+    void incrementalScanWithoutChangesReadsNothing() {
+        rule("GDP偏高", "gdp", "gt", 30.0, 1);
+        scannerService.scanAllRules();
+
+        List<SqlRecorder.Statement> statements = SqlRecorder.record(scannerService::scanChanges);
+
+        assertThat(selectsFrom(statements, "economic_indicator")).isEmpty();
+        assertThat(selectsFrom(statements, "alert_event")).isEmpty();
+    }
+
+    @Test
+    void failedScanLeavesTheChangeLogForTheNextScan() {
+        long highGdp = rule("GDP偏高", "gdp", "gt", 30.0, 1);
+        changeTracker.countiesChanged(List.of(8L));
+        // 任何新事件都写不进去，分区失败
+        jdbcTemplate.execute("alter table alert_event add constraint ck_alert_event_test check (metric_value < 0)");
+        try {
+            assertThatThrownBy(scannerService::scanChanges).isInstanceOf(RuntimeException.class);
+        } finally {
+            jdbcTemplate.execute("alter table alert_event drop constraint ck_alert_event_test");
+        }
+        assertThat(scanMonitor.currentStatus().state()).isEqualTo("FAILED");
+        assertThat(changeTracker.hasPendingChanges()).isTrue();
+
+        scannerService.scanChanges();
+
+        assertThat(changeTracker.hasPendingChanges()).isFalse();
+        assertThat(eventCounties(highGdp)).containsExactly(8L);
+    }
+
+    @Test
+    void runningTheSameScanTwiceChangesNothing() {
+        long highGdp = rule("GDP偏高", "gdp", "gt", 30.0, 1);
+
+        scannerService.scanAllRules();
+        assertThat(scanMonitor.currentStatus().events()).isEqualTo(new AlertScanMonitor.EventCounts(6, 0, 0, 0));
+        List<Map<String, Object>> first = events(highGdp);
+
+        scannerService.scanAllRules();
+        assertThat(scanMonitor.currentStatus().events()).isEqualTo(new AlertScanMonitor.EventCounts(0, 0, 6, 0));
+        // 事件 id、触发时间都不变
+        assertThat(events(highGdp)).isEqualTo(first);
+    }
+
+    @Test
+    void changedValuesAreUpdatedAndClearedConditionsRemoved() {
+        long highGdp = rule("GDP偏高", "gdp", "gt", 30.0, 1);
+        scannerService.scanAllRules();
+
+        jdbcTemplate.update("update economic_indicator set gdp = 50 where county_id = 8 and year = ?",
+                TestData.LAST_YEAR);
+        scannerService.scanAllRules();
+        assertThat(scanMonitor.currentStatus().events()).isEqualTo(new AlertScanMonitor.EventCounts(0, 1, 5, 0));
+        assertThat(jdbcTemplate.queryForObject("select metric_value from alert_event where rule_id = ? " +
+                "and county_id = 8", Double.class, highGdp)).isEqualTo(50.0);
+
+        // 提高阈值后县 7、9 不再命中；县 7 的事件已被确认，保留
+        jdbcTemplate.update("update alert_event set acknowledged_by = 1, acknowledged_at = current_timestamp " +
+                "where rule_id = ? and county_id = 7", highGdp);
+        jdbcTemplate.update("update alert_rule set threshold = 33 where rule_id = ?", highGdp);
+        evictCaches();
+        scannerService.scanAllRules();
+
+        assertThat(scanMonitor.currentStatus().events()).isEqualTo(new AlertScanMonitor.EventCounts(0, 0, 4, 1));
+        assertThat(eventCounties(highGdp)).containsExactly(7L, 8L, 10L, 11L, 12L);
+    }
+
+    private List<Map<String, Object>> events(long ruleId) {
+        return jdbcTemplate.queryForList("select event_id, county_id, year, metric_value, triggered_at " +
+                "from alert_event where rule_id = ? order by county_id", ruleId);
+    }
+
+    private void addCounty(long countyId, double gdp) {
+        jdbcTemplate.update("insert into poverty_county (county_id, county_name, province_id) values (?, ?, 1)",
+                countyId, "新增县" + countyId);
+        jdbcTemplate.update("insert into economic_indicator (county_id, year, gdp) values (?, ?, ?)",
+                countyId, TestData.LAST_YEAR, gdp);
+    }
+
+    private long rule(String name, String metricKey, String comparator, double threshold, int durationYears) {
+        jdbcTemplate.update("insert into alert_rule (rule_name, metric_key, comparator, threshold, duration_years, " +
+                "enabled) values (?, ?, ?, ?, ?, true)", name, metricKey, comparator, threshold, durationYears);
+        evictCaches();
+        return jdbcTemplate.queryForObject("select rule_id from alert_rule where rule_name = ?", Long.class, name);
+    }
+
+    private List<Long> eventCounties(long ruleId) {
+        return jdbcTemplate.queryForList("select county_id from alert_event where rule_id = ? order by county_id",
+                Long.class, ruleId);
+    }
+
+    private static List<Long> countyRange(long first, long last) {
+        return LongStream.rangeClosed(first, last).boxed().toList();
+    }
+
+    private static List<SqlRecorder.Statement> statements(List<SqlRecorder.Statement> statements, String table,
+                                                          String countyCondition) {
+        return statements.stream()
+                .filter(statement -> {
+                    String sql = statement.sql().toLowerCase(Locale.ROOT);
+                    return sql.startsWith("select") && sql.contains(" from " + table + " ")
+                            && sql.contains("county_id" + countyCondition);
+                })
+                .toList();
+    }
+
+    private static List<String> selectsFrom(List<SqlRecorder.Statement> statements, String table) {
+        return statements.stream()
+                .map(statement -> statement.sql().toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from " + table + " "))
+                .toList();
+    }
+
+    // 规则由 JDBC 直接改写，需清掉二级缓存和查询缓存
+    private void evictCaches() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.poverty.service;
+
+import com.example.poverty.TestData;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * getAnalysisData must read the database only through the column store: one pass of two projection
+ * queries when the store loads, and nothing per section or per county afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AnalysisQueryCountTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private IndicatorColumnStore indicatorStore;
+    @Autowired
+    private DashboardService dashboardService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        TestData.seed(jdbcTemplate);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void storeLoadsInOneQueryPass() {
+        statistics.clear();
+
+        indicatorStore.reload();
+
+        // 县元数据一条 + 全部指标一条
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void analysisSectionsShareOneContextWithoutQueries() {
+        indicatorStore.reload();
+        statistics.clear();
+
+        DashboardService.AnalysisSections sections = dashboardService.getAnalysisData(TestData.LAST_YEAR);
+
+        assertThat(sections.failedSections()).isEmpty();
+        assertThat(sections.yearComparison().years()).contains(TestData.LAST_YEAR);
+        assertThat(sections.heatmap()).hasSize(TestData.PROVINCES);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
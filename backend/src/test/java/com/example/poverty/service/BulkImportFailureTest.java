@@ -0,0 +1,77 @@
+package com.example.poverty.service;
+
+import com.example.poverty.TestData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Imports commit batch by batch: when a later batch fails, the failed status reports the rows that the
+ * earlier batches left committed.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkImportFailureTest {
+
+    // 种子数据之外的年份，测试后删除
+    private static final int IMPORT_YEAR = 2030;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BulkImportService importService;
+    @Autowired
+    private ImportMonitor importMonitor;
+    @Autowired
+    private IndicatorColumnStore indicatorStore;
+
+    @BeforeEach
+    void setUp() {
+        TestData.seed(jdbcTemplate);
+        indicatorStore.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from economic_indicator where year = ?", IMPORT_YEAR);
+        jdbcTemplate.update("delete from alert_change_log");
+        indicatorStore.reload();
+    }
+
+    @Test
+    void failedBatchReportsTheRowsCommittedBeforeIt() {
+        StringBuilder csv = new StringBuilder("countyId,year,gdp\n");
+        for (int i = 0; i < BulkImportService.BATCH_SIZE; i++) {
+            csv.append("1,").append(IMPORT_YEAR).append(",10\n");
+        }
+        // 第二批的唯一一行违反临时约束
+        csv.append("2,").append(IMPORT_YEAR).append(",-1\n");
+        jdbcTemplate.execute(
+                "alter table economic_indicator add constraint ck_indicator_test check (gdp is null or gdp >= 0)");
+        try {
+            assertThatThrownBy(() -> importService.importIndicators(
+                    new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                    BulkImportService.Format.CSV)).isInstanceOf(RuntimeException.class);
+        } finally {
+            jdbcTemplate.execute("alter table economic_indicator drop constraint ck_indicator_test");
+        }
+
+        ImportMonitor.ImportStatus status = importMonitor.currentStatus();
+        assertThat(status.state()).isEqualTo("FAILED");
+        assertThat(status.rowsRead()).isEqualTo(BulkImportService.BATCH_SIZE + 1);
+        assertThat(status.rowsWritten()).isEqualTo(BulkImportService.BATCH_SIZE);
+        assertThat(status.message()).contains("已提交 " + BulkImportService.BATCH_SIZE + " 行");
+        assertThat(jdbcTemplate.queryForList("select county_id from economic_indicator where year = ?",
+                Long.class, IMPORT_YEAR)).containsExactly(1L);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.poverty.service;
+
+import com.example.poverty.TestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integer columns must not be truncated on import: a fractional or out-of-range value rejects its row
+ * with a row error, like the other validation failures, and nothing is written.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkImportValidationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BulkImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        TestData.seed(jdbcTemplate);
+    }
+
+    @Test
+    void fractionalYearRejectsTheRow() throws Exception {
+        BulkImportService.ImportResult result = importService.importIndicators(csv(
+                "countyId,year,gdp",
+                "1,2020.5,10",
+                "1,1e10,10",
+                "1,abc,10"), BulkImportService.Format.CSV);
+
+        assertThat(result.rowsRead()).isEqualTo(3);
+        assertThat(result.rowsWritten()).isZero();
+        assertThat(result.rowsRejected()).isEqualTo(3);
+        assertThat(result.errors()).hasSize(3);
+        assertThat(result.errors().get(0)).endsWith("year需为整数: 2020.5");
+        assertThat(result.errors().get(1)).endsWith("year需为整数: 1e10");
+        assertThat(result.errors().get(2)).endsWith("year格式错误: abc");
+    }
+
+    @Test
+    void fractionalProjectFieldsRejectTheRow() throws Exception {
+        BulkImportService.ImportResult result = importService.importProjects(csv(
+                "countyId,projectName,progress,startYear",
+                "1,测试项目,50.5,2020",
+                "1,测试项目,50,2020.25"), BulkImportService.Format.CSV);
+
+        assertThat(result.rowsWritten()).isZero();
+        assertThat(result.rowsRejected()).isEqualTo(2);
+        assertThat(result.errors().get(0)).endsWith("progress需为整数: 50.5");
+        assertThat(result.errors().get(1)).endsWith("startyear需为整数: 2020.25");
+    }
+
+    private static InputStream csv(String... lines) {
+        return new ByteArrayInputStream((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
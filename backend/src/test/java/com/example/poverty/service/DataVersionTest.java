@@ -0,0 +1,41 @@
+package com.example.poverty.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DataVersionTest {
+
+    @Test
+    void countyWriteIsRecentOnlyForThatCounty() {
+        DataVersion dataVersion = new DataVersion();
+
+        dataVersion.bumpCounty(7L);
+
+        assertThat(dataVersion.writtenWithin(List.of(7L), 60_000)).isTrue();
+        assertThat(dataVersion.writtenWithin(List.of(8L), 60_000)).isFalse();
+        assertThat(dataVersion.writtenWithin(List.of(8L, 7L), 60_000)).isTrue();
+    }
+
+    @Test
+    void bulkWriteIsRecentForEveryCounty() {
+        DataVersion dataVersion = new DataVersion();
+        assertThat(dataVersion.writtenWithin(List.of(1L), 60_000)).isFalse();
+
+        dataVersion.bumpAll();
+
+        assertThat(dataVersion.writtenWithin(List.of(1L), 60_000)).isTrue();
+    }
+
+    @Test
+    void writesOlderThanTheWindowAreNotRecent() throws InterruptedException {
+        DataVersion dataVersion = new DataVersion();
+        dataVersion.bumpCounty(7L);
+
+        Thread.sleep(20);
+
+        assertThat(dataVersion.writtenWithin(List.of(7L), 5)).isFalse();
+    }
+}